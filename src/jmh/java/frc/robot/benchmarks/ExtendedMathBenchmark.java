@@ -0,0 +1,79 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.utilities.ExtendedMath;
+import frc.robot.utilities.Pose2;
+import frc.robot.utilities.Vec2;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class ExtendedMathBenchmark {
+	private Translation2d a = new Translation2d(1.3, -0.4);
+	private Translation2d b = new Translation2d(-2.1, 0.9);
+	private Pose2d poseA = new Pose2d(1.0, 2.0, Rotation2d.fromDegrees(30));
+	private Pose2d poseB = new Pose2d(1.02, 1.97, Rotation2d.fromDegrees(31));
+	private Rotation2d unwrapped = Rotation2d.fromDegrees(725);
+	private Pose2 scratchPoseA = new Pose2().set(poseA);
+	private Pose2 scratchPoseB = new Pose2().set(poseB);
+	private Vec2 scratchVec = new Vec2();
+
+	@Benchmark
+	public double dot() {
+		return ExtendedMath.dot(a, b);
+	}
+
+	@Benchmark
+	public double angleBetween() {
+		return ExtendedMath.angleBetween(a, b);
+	}
+
+	@Benchmark
+	public double scalarProjectionOf() {
+		return ExtendedMath.scalarProjectionOf(a, b);
+	}
+
+	@Benchmark
+	public Translation2d normalize() {
+		return ExtendedMath.normalize(a);
+	}
+
+	@Benchmark
+	public Vec2 normalizePrimitive() {
+		return ExtendedMath.normalize(1.3, -0.4, scratchVec);
+	}
+
+	@Benchmark
+	public double distance() {
+		return ExtendedMath.distance(a, b);
+	}
+
+	@Benchmark
+	public boolean isClose() {
+		return ExtendedMath.isClose(poseA, poseB, 0.05, 0.05);
+	}
+
+	@Benchmark
+	public boolean isClosePrimitive() {
+		return ExtendedMath.isClose(scratchPoseA, scratchPoseB, 0.05, 0.05);
+	}
+
+	@Benchmark
+	public Rotation2d wrapRotation2d() {
+		return ExtendedMath.wrapRotation2d(unwrapped);
+	}
+
+	@Benchmark
+	public double getOverallAngle() {
+		return ExtendedMath.getOverallAngle(0.3, 0.1, -0.05);
+	}
+
+	@Benchmark
+	public double getTilt() {
+		return ExtendedMath.getTilt(0.98, 0.12, -0.15, 0.05);
+	}
+}
@@ -0,0 +1,55 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/** Publishes a steady target into the in-process NetworkTables instance in place of a camera */
+class FakeLimelight {
+	private DoublePublisher tv;
+	private DoublePublisher tx;
+	private DoublePublisher ty;
+	private DoublePublisher ta;
+	private DoublePublisher ts;
+	private DoublePublisher tid;
+	private DoublePublisher tl;
+	private DoublePublisher cl;
+	private DoubleArrayPublisher botposeWpiBlue;
+	private DoubleArrayPublisher botposeWpiRed;
+	private DoubleArrayPublisher targetPoseRobotSpace;
+
+	/** Keeps NetworkTables from trying to reach a server */
+	static void startLocalNetworkTables() {
+		NetworkTableInstance.getDefault().startLocal();
+	}
+
+	FakeLimelight(String limelightName) {
+		NetworkTable table = NetworkTableInstance.getDefault().getTable(limelightName);
+		tv = table.getDoubleTopic("tv").publish();
+		tx = table.getDoubleTopic("tx").publish();
+		ty = table.getDoubleTopic("ty").publish();
+		ta = table.getDoubleTopic("ta").publish();
+		ts = table.getDoubleTopic("ts").publish();
+		tid = table.getDoubleTopic("tid").publish();
+		tl = table.getDoubleTopic("tl").publish();
+		cl = table.getDoubleTopic("cl").publish();
+		botposeWpiBlue = table.getDoubleArrayTopic("botpose_wpiblue").publish();
+		botposeWpiRed = table.getDoubleArrayTopic("botpose_wpired").publish();
+		targetPoseRobotSpace = table.getDoubleArrayTopic("targetpose_robotspace").publish();
+	}
+
+	void publishTarget() {
+		tv.set(1);
+		tx.set(4.5);
+		ty.set(-3.25);
+		ta.set(1.8);
+		ts.set(-12);
+		tid.set(7);
+		tl.set(11);
+		cl.set(20);
+		botposeWpiBlue.set(new double[] { 2.1, 3.4, 0, 0, 0, 37, 31 });
+		botposeWpiRed.set(new double[] { 14.4, 4.6, 0, 0, 0, -143, 31 });
+		targetPoseRobotSpace.set(new double[] { 0.2, 0, 2.5, 0, 4, 0 });
+	}
+}
@@ -0,0 +1,58 @@
+package frc.robot.benchmarks;
+
+import java.util.Optional;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import frc.robot.hardware.Limelight;
+import frc.robot.hardware.LimelightFrame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class LimelightBenchmark {
+	private Limelight limelight;
+	private double[] pose = new double[Limelight.POSE_ARRAY_LENGTH];
+
+	@Setup
+	public void setup() {
+		FakeLimelight.startLocalNetworkTables();
+		new FakeLimelight("limelight-benchmark").publishTarget();
+		limelight = new Limelight("limelight-benchmark");
+	}
+
+	@Benchmark
+	public boolean hasValidTargets() {
+		return limelight.hasValidTargets();
+	}
+
+	@Benchmark
+	public Optional<Rotation2d> horizontalOffsetOptional() {
+		return limelight.getHorizontalOffsetFromCrosshair();
+	}
+
+	@Benchmark
+	public double horizontalOffsetPrimitive() {
+		return limelight.getHorizontalOffsetFromCrosshair(0);
+	}
+
+	@Benchmark
+	public Optional<Pose2d> robotPoseOptional() {
+		return limelight.getRobotPoseToAlliance(Alliance.Blue);
+	}
+
+	@Benchmark
+	public double[] robotPoseArray() {
+		limelight.getRobotPoseToAlliance(Alliance.Blue, pose);
+		return pose;
+	}
+
+	@Benchmark
+	public LimelightFrame capture() {
+		return limelight.capture();
+	}
+}
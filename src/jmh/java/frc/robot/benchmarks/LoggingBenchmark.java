@@ -0,0 +1,40 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.subsystems.messaging.MessagingSystem;
+import frc.robot.utilities.LogInputs;
+
+import org.littletonrobotics.junction.LogTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class LoggingBenchmark {
+	private MessagingSystem messaging;
+	private LogInputs inputs;
+	private LogTable table = new LogTable(0);
+
+	@Setup
+	public void setup() {
+		HAL.initialize(500, 0);
+		FakeLimelight.startLocalNetworkTables();
+		messaging = MessagingSystem.getInstance();
+		messaging.setMessagingState(true);
+		inputs = new LogInputs(messaging);
+	}
+
+	@Benchmark
+	public LogTable logWithoutMessages() {
+		inputs.toLog(table);
+		return table;
+	}
+
+	@Benchmark
+	public LogTable logOneMessage() {
+		messaging.addMessage("Benchmark");
+		inputs.toLog(table);
+		return table;
+	}
+}
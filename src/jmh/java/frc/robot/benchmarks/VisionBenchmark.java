@@ -0,0 +1,61 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.subsystems.vision.Vision;
+import frc.robot.subsystems.vision.VisionCamera;
+import frc.robot.subsystems.vision.VisionCamera.Role;
+import frc.robot.subsystems.vision.VisionIOLimelight;
+
+import org.littletonrobotics.junction.LogTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class VisionBenchmark {
+	private Vision vision;
+	private Translation2d defaultTranslation = new Translation2d();
+	private LogTable table = new LogTable(0);
+
+	@Setup
+	public void setup() {
+		HAL.initialize(500, 0);
+		FakeLimelight.startLocalNetworkTables();
+		new FakeLimelight("limelight-hehehe").publishTarget();
+		new FakeLimelight("limelight-haha").publishTarget();
+		vision = Vision.createInstance(
+			new VisionCamera(
+				"AprilTag Camera",
+				Role.AprilTag,
+				new Transform3d(),
+				new VisionIOLimelight("limelight-hehehe")
+			),
+			new VisionCamera(
+				"Game Piece Camera",
+				Role.GamePiece,
+				new Transform3d(),
+				new VisionIOLimelight("limelight-haha")
+			)
+		);
+	}
+
+	@Benchmark
+	public Vision periodic() {
+		vision.periodic();
+		return vision;
+	}
+
+	@Benchmark
+	public Translation2d getGamePieceTranslation() {
+		return vision.getGamePieceTranslation(defaultTranslation);
+	}
+
+	@Benchmark
+	public LogTable logData() {
+		vision.logData(table);
+		return table;
+	}
+}
@@ -2,23 +2,36 @@ package frc.robot;
 
 import edu.wpi.first.wpilibj.PowerDistribution.ModuleType;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
-import frc.robot.utilities.LogSubsystemInputsTask;
+import frc.robot.hardware.MotorConfigurator;
+import frc.robot.simulation.PhysicsSim;
+import frc.robot.utilities.CycleScheduler;
+import frc.robot.utilities.LoggableRegistry;
+import frc.robot.utilities.LoopProfiler;
 
-import java.util.Timer;
+import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
 import org.littletonrobotics.junction.Logger;
 import org.littletonrobotics.junction.inputs.LoggedPowerDistribution;
 import org.littletonrobotics.junction.networktables.NT4Publisher;
+import org.littletonrobotics.junction.wpilog.WPILOGReader;
 import org.littletonrobotics.junction.wpilog.WPILOGWriter;
 
 public class Robot extends LoggedRobot {
+	/** Units are seconds */
+	private static final double LOOP_PERIOD = 0.02;
+
 	private RobotContainer robotContainer;
-	private Timer timer;
+	private LoggableRegistry loggableRegistry;
+	private LoopProfiler profiler;
+	private CycleScheduler cycleScheduler;
+	private LoopProfiler.Section schedulerSection;
+	private LoopProfiler.Section loggingSection;
+	private MotorConfigurator motorConfigurator;
+	private boolean isMotorConfigurationChecked;
 
 	@Override
 	public void robotInit() {
 		Logger logger = Logger.getInstance();
-		timer = new Timer();
 
 		logger.recordMetadata("ProjectName", BuildInfo.MAVEN_NAME);
 		logger.recordMetadata("BuildDate", BuildInfo.BUILD_DATE);
@@ -36,22 +49,53 @@ public class Robot extends LoggedRobot {
 				logger.recordMetadata("GitDirty", "Unknown");
 				break;
 		}
-		logger.addDataReceiver(new WPILOGWriter("/media/sda1/")); // Log to a USB stick
-		logger.addDataReceiver(new NT4Publisher()); // Publish data to NetworkTables
-		LoggedPowerDistribution.getInstance(1, ModuleType.kRev); // Enables power distribution logging
+		logger.recordMetadata("RobotMode", RobotMode.get().name());
+		switch (RobotMode.get()) {
+			case Real:
+				logger.addDataReceiver(new WPILOGWriter("/media/sda1/")); // Log to a USB stick
+				logger.addDataReceiver(new NT4Publisher()); // Publish data to NetworkTables
+				LoggedPowerDistribution.getInstance(1, ModuleType.kRev); // Enables power distribution logging
+				break;
+			case Sim:
+				logger.addDataReceiver(new NT4Publisher());
+				break;
+			case Replay:
+				// Run as fast as possible against the recorded inputs, writing a log to compare
+				setUseTiming(false);
+				String replayLogPath = RobotMode.getReplayLogPath();
+				logger.setReplaySource(new WPILOGReader(replayLogPath));
+				logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(replayLogPath, "_sim")));
+				break;
+		}
 
 		logger.start();
 		robotContainer = new RobotContainer();
-		timer.schedule(new LogSubsystemInputsTask(), 10, 20);
+		loggableRegistry = LoggableRegistry.getInstance();
+		profiler = LoopProfiler.getInstance();
+		cycleScheduler = CycleScheduler.getInstance();
+		schedulerSection = profiler.section("CommandScheduler.run()");
+		loggingSection = profiler.section("Logging");
+		motorConfigurator = MotorConfigurator.getInstance();
 	}
 
 	@Override
 	public void robotPeriodic() {
+		profiler.startCycle();
+		cycleScheduler.startCycle();
+		schedulerSection.start();
 		CommandScheduler.getInstance().run();
+		schedulerSection.stop();
+		loggingSection.start();
+		loggableRegistry.run();
+		loggingSection.stop();
+		cycleScheduler.runDeferred();
+		cycleScheduler.endCycle();
+		profiler.endCycle();
 	}
 
 	@Override
 	public void autonomousInit() {
+		motorConfigurator.check();
 		robotContainer.autonomousInit();
 	}
 	
@@ -63,6 +107,7 @@ public class Robot extends LoggedRobot {
 
 	@Override
 	public void teleopInit() {
+		motorConfigurator.check();
 		robotContainer.teleopInit();
 	}
 
@@ -75,18 +120,31 @@ public class Robot extends LoggedRobot {
 	@Override
 	public void disabledInit() {}
 
+	/** The robot starts disabled, so devices are checked here before it can enable */
 	@Override
-	public void disabledPeriodic() {}
+	public void disabledPeriodic() {
+		if (!isMotorConfigurationChecked) {
+			isMotorConfigurationChecked = true;
+			motorConfigurator.check();
+		}
+	}
 
 	@Override
 	public void disabledExit() {}
 
 	@Override
-	public void testInit() {}
+	public void testInit() {
+		motorConfigurator.check();
+	}
 
 	@Override
 	public void testPeriodic() {}
 
 	@Override
 	public void testExit() {}
+
+	@Override
+	public void simulationPeriodic() {
+		PhysicsSim.getInstance().advance(LOOP_PERIOD);
+	}
 }
@@ -9,21 +9,45 @@ import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.subsystems.messaging.MessagingSystem;
+import frc.robot.subsystems.swerve.SwerveDrive;
+import frc.robot.subsystems.vision.Vision;
+import frc.robot.utilities.ExtendedMath;
+import frc.robot.utilities.LoopProfiler;
 
 public class RobotContainer {
 	private CommandXboxController xbox;
 	private MessagingSystem messaging;
+	private SwerveDrive swerveDrive;
+	private Vision vision;
 	private Command autoCommand;
 	private SendableChooser<Command> autonChooser;
+	private LoopProfiler profiler;
 
 	private final int DRIVER_PORT = 2;
+	private final double JOYSTICK_DEADZONE = 0.1;
+	/** Units are percent of max angular speed per degree of horizontal offset */
+	private final double ALIGN_P = 0.015;
+	/**
+	 * Units are percent of max angular speed per radian/sec of yaw rate. The gyro is fresher than
+	 * the camera, so it damps the turn before the tag offset catches up.
+	 */
+	private final double ALIGN_D = 0.05;
 
 	public RobotContainer() {
+		profiler = LoopProfiler.getInstance();
+		// The command scheduler runs periodics in the order subsystems are created. Vision goes
+		// before the drive so odometry fuses the frames captured this cycle in every mode.
 		messaging = MessagingSystem.getInstance();
+		vision = Vision.getInstance();
+		swerveDrive = SwerveDrive.getInstance();
+		if (swerveDrive.getSimulation() != null) {
+			vision.setSimulatedPoseSupplier(swerveDrive.getSimulation()::getPose);
+		}
 		setupAuto();
 		setupDriveController();
 	}
 
+	/** Routines added here should be wrapped with {@link #profiled(String, Command)} */
 	public void setupAuto() {
 		autonChooser = new SendableChooser<Command>();
 		autonChooser.setDefaultOption("No Auto", null);
@@ -39,7 +63,42 @@ public class RobotContainer {
 		Trigger slowModeButton = xbox.leftBumper();
 		Trigger cancelationButton = xbox.start();
 
-		cancelationButton.onTrue(Commands.runOnce(() -> CommandScheduler.getInstance().cancelAll()));
+		swerveDrive.setDefaultCommand(profiled("Drive", Commands.run(
+			() -> swerveDrive.drivePercent(
+				getDriveAxis(-xbox.getLeftY()),
+				getDriveAxis(-xbox.getLeftX()),
+				getDriveAxis(-xbox.getRightX())
+			),
+			swerveDrive
+		)));
+
+		switchDriveModeButton.onTrue(profiled("Switch Drive Mode", Commands.runOnce(swerveDrive::switchDriveMode)));
+		resetGyroButton.onTrue(profiled("Reset Gyro", Commands.runOnce(swerveDrive::resetGyro)));
+		slowModeButton.onTrue(profiled("Slow Mode On", Commands.runOnce(() -> swerveDrive.setSlowMode(true))));
+		slowModeButton.onFalse(profiled("Slow Mode Off", Commands.runOnce(() -> swerveDrive.setSlowMode(false))));
+		alignToTargetButton.whileTrue(profiled("Align To Target", Commands.run(
+			() -> swerveDrive.drivePercent(
+				getDriveAxis(-xbox.getLeftY()),
+				getDriveAxis(-xbox.getLeftX()),
+				vision.seesTag()
+					? ExtendedMath.clampAroundZero(
+						vision.getSnapshot().aprilTag.horizontalOffset * ALIGN_P - swerveDrive.getYawRate() * ALIGN_D,
+						1
+					)
+					: 0
+			),
+			swerveDrive
+		)));
+		cancelationButton.onTrue(profiled("Cancel All", Commands.runOnce(() -> CommandScheduler.getInstance().cancelAll())));
+	}
+
+	/** Names {@code command} and times its execute, every command the robot schedules goes through this */
+	private Command profiled(String name, Command command) {
+		return profiler.profile(command.withName(name));
+	}
+
+	private double getDriveAxis(double input) {
+		return ExtendedMath.singedSquare(ExtendedMath.withContinuousDeadzone(input, JOYSTICK_DEADZONE));
 	}
 
 
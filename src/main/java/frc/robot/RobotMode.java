@@ -0,0 +1,42 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj.RobotBase;
+
+import org.littletonrobotics.junction.LogFileUtil;
+
+/**
+ * Whether the code is driving real hardware, a simulation, or replaying a log. Replay is chosen
+ * with the {@code robot.mode} system property or the {@code ROBOT_MODE} environment variable set
+ * to {@code replay}, in any case; otherwise the mode follows {@link RobotBase#isReal()}. Only the
+ * environment variable also runs {@code simulateJava} without the sim GUI.
+ * <p> The log to replay comes from {@code robot.replayLog} or {@code REPLAY_LOG}, falling back to
+ * AdvantageKit's own lookup (the {@code AKIT_LOG_PATH} variable or the log open in AdvantageScope).
+ */
+public enum RobotMode {
+	Real,
+	Sim,
+	Replay;
+
+	private static RobotMode mode;
+
+	public static synchronized RobotMode get() {
+		if (mode == null) {
+			if ("replay".equalsIgnoreCase(getSetting("robot.mode", "ROBOT_MODE"))) {
+				mode = Replay;
+			} else {
+				mode = RobotBase.isReal() ? Real : Sim;
+			}
+		}
+		return mode;
+	}
+
+	public static String getReplayLogPath() {
+		String path = getSetting("robot.replayLog", "REPLAY_LOG");
+		return path != null ? path : LogFileUtil.findReplayLog();
+	}
+
+	private static String getSetting(String property, String environmentVariable) {
+		String value = System.getProperty(property);
+		return value != null ? value : System.getenv(environmentVariable);
+	}
+}
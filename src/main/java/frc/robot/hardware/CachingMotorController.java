@@ -0,0 +1,219 @@
+package frc.robot.hardware;
+
+import com.pathplanner.lib.auto.PIDConstants;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Wraps an {@link EncodedMotorController} and drops setpoint writes that would not change
+ * anything, so the CAN bus only carries frames that matter. A setpoint is still re-sent every
+ * keep alive period in case the controller missed or reset.
+ * <p> Reads and configuration pass straight through. Configuration clears the cache so the next
+ * setpoint is always sent.
+ */
+public class CachingMotorController implements EncodedMotorController {
+	private static final double DEFAULT_EPSILON = 1e-4;
+	private static final double DEFAULT_KEEP_ALIVE_SECONDS = 0.25;
+
+	private static long totalSentCount;
+	private static long totalSkippedCount;
+
+	private EncodedMotorController inner;
+	private double epsilon;
+	private double keepAliveSeconds;
+
+	private SetpointType lastType;
+	private double lastValue;
+	private double lastSendTime;
+	private long sentCount;
+	private long skippedCount;
+
+	private static enum SetpointType {
+		Output,
+		AngularVelocity,
+		Angle
+	}
+
+	public CachingMotorController(EncodedMotorController inner) {
+		this(inner, DEFAULT_EPSILON, DEFAULT_KEEP_ALIVE_SECONDS);
+	}
+
+	/**
+	 * @param epsilon setpoints closer than this to the last one sent are skipped, in the units of
+	 *     the setter being called
+	 * @param keepAliveSeconds a skipped setpoint is sent anyway once this much time has passed
+	 */
+	public CachingMotorController(EncodedMotorController inner, double epsilon, double keepAliveSeconds) {
+		this.inner = inner;
+		this.epsilon = epsilon;
+		this.keepAliveSeconds = keepAliveSeconds;
+	}
+
+	public EncodedMotorController getInner() {
+		return inner;
+	}
+
+	public long getSentCount() {
+		return sentCount;
+	}
+
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	/** Across every caching controller, main thread only */
+	public static long getTotalSentCount() {
+		return totalSentCount;
+	}
+
+	/** Across every caching controller, main thread only */
+	public static long getTotalSkippedCount() {
+		return totalSkippedCount;
+	}
+
+	/** Forces the next setpoint to be sent */
+	public void invalidate() {
+		lastType = null;
+	}
+
+	private boolean shouldSend(SetpointType type, double value) {
+		double now = Timer.getFPGATimestamp();
+		if (
+			type == lastType &&
+			Math.abs(value - lastValue) <= epsilon &&
+			now - lastSendTime < keepAliveSeconds
+		) {
+			skippedCount++;
+			totalSkippedCount++;
+			return false;
+		}
+		lastType = type;
+		lastValue = value;
+		lastSendTime = now;
+		sentCount++;
+		totalSentCount++;
+		return true;
+	}
+
+	@Override
+	public void setAngularVelocity(double targetAngularVelocity) {
+		if (shouldSend(SetpointType.AngularVelocity, targetAngularVelocity)) {
+			inner.setAngularVelocity(targetAngularVelocity);
+		}
+	}
+
+	@Override
+	public double getAngularVelocity() {
+		return inner.getAngularVelocity();
+	}
+
+	@Override
+	public void setAngle(double targetAngle) {
+		if (shouldSend(SetpointType.Angle, targetAngle)) {
+			inner.setAngle(targetAngle);
+		}
+	}
+
+	@Override
+	public double getAngle() {
+		return inner.getAngle();
+	}
+
+	@Override
+	public void refreshSensors() {
+		inner.refreshSensors();
+	}
+
+	@Override
+	public double getSensorTimestamp() {
+		return inner.getSensorTimestamp();
+	}
+
+	@Override
+	public EncodedMotorController setSensorUpdatePeriod(int periodMs) {
+		inner.setSensorUpdatePeriod(periodMs);
+		return this;
+	}
+
+	@Override
+	public void setOutput(double targetOutput) {
+		if (shouldSend(SetpointType.Output, targetOutput)) {
+			inner.setOutput(targetOutput);
+		}
+	}
+
+	@Override
+	public double getOutput() {
+		return inner.getOutput();
+	}
+
+	@Override
+	public EncodedMotorController setCurrentLimit(int currentLimit) {
+		inner.setCurrentLimit(currentLimit);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setPID(PIDConstants pid) {
+		inner.setPID(pid);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setMinAngle(double minAngle) {
+		inner.setMinAngle(minAngle);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setMaxAngle(double maxAngle) {
+		inner.setMaxAngle(maxAngle);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setMinOutput(double minOutput) {
+		inner.setMinOutput(minOutput);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setMaxOutput(double maxOutput) {
+		inner.setMaxOutput(maxOutput);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setInversion(boolean shouldInvert) {
+		inner.setInversion(shouldInvert);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setBrakeOnIdle(boolean shouldBreak) {
+		inner.setBrakeOnIdle(shouldBreak);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setAngleTolerance(double tolerance) {
+		inner.setAngleTolerance(tolerance);
+		invalidate();
+		return this;
+	}
+
+	@Override
+	public boolean applyConfig(MotorConfig config) {
+		boolean applied = inner.applyConfig(config);
+		invalidate();
+		return applied;
+	}
+}
@@ -6,15 +6,31 @@ public interface EncodedMotorController {
 	/** Units are radians/sec */
 	public void setAngularVelocity(double targetAngularVelocity);
 
-	/** Units are radians/sec */
+	/** Units are radians/sec, as of the last {@link #refreshSensors()} */
 	public double getAngularVelocity();
 
 	/** Units are radians */
 	public void setAngle(double targetAngle);
 
-	/** Units are radians */
+	/** Units are radians, as of the last {@link #refreshSensors()} */
 	public double getAngle();
 
+	/**
+	 * Reads every sensor value from the vendor library in one pass. Call once per cycle before
+	 * using {@link #getAngle()} or {@link #getAngularVelocity()}.
+	 * <p> May be called from a sampling thread other than the one reading the cached values.
+	 */
+	public void refreshSensors();
+
+	/** FPGA time of the last {@link #refreshSensors()}, units are seconds */
+	public double getSensorTimestamp();
+
+	/**
+	 * How often the controller sends position and velocity over CAN. Longer periods free up
+	 * bandwidth at the cost of staler readings. Units are milliseconds
+	 */
+	public EncodedMotorController setSensorUpdatePeriod(int periodMs);
+
 	/** Units are percent */
 	public void setOutput(double targetOutput);
 
@@ -44,4 +60,11 @@ public interface EncodedMotorController {
 
 	/** Units are radians */
 	public EncodedMotorController setAngleTolerance(double tolerance);
+
+	/**
+	 * Writes every setting in one batch, reads them back to verify, and retries on failure.
+	 * Blocks on CAN, so use {@link MotorConfigurator} to run it off the main thread.
+	 * @return whether the device ended up with the requested settings
+	 */
+	public boolean applyConfig(MotorConfig config);
 }
@@ -11,135 +11,314 @@ import java.util.Optional;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.DoubleSubscriber;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.TimestampedDouble;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 
+/**
+ * Reads a Limelight over NetworkTables. Java subscribers hand back a new array on every read, so
+ * each array is only read again after the camera publishes a new value, and tv is only read again
+ * once it changes. Between updates every getter reuses what was read last.
+ * <p> Not thread safe, read from one thread at a time.
+ */
 public class Limelight {
+	/** x, y, z, roll, pitch, yaw */
+	public static final int POSE_ARRAY_LENGTH = 6;
+	static final double[] EMPTY_ARRAY = new double[0];
+
+	private String name;
 	private NetworkTable table;
 
+	private DoubleSubscriber tv;
+	private DoubleSubscriber tx;
+	private DoubleSubscriber ty;
+	private DoubleSubscriber ta;
+	private DoubleSubscriber ts;
+	private DoubleSubscriber tid;
+	private DoubleSubscriber tl;
+	private DoubleSubscriber cl;
+	private CachedArray botpose;
+	private CachedArray botposeWpiRed;
+	private CachedArray botposeWpiBlue;
+	private CachedArray botposeTargetSpace;
+	private CachedArray targetPoseCameraSpace;
+	private CachedArray targetPoseRobotSpace;
+	private CachedArray cameraPoseTargetSpace;
+	private DoublePublisher pipeline;
+
+	private long frameCount;
+	private long lastFrameTimestamp;
+	private boolean hasTarget;
+	private long targetChange = -1;
+
+	/** The last array a subscriber returned, read again only after the topic changes */
+	private static class CachedArray {
+		private final DoubleArraySubscriber subscriber;
+		private long lastChange = -1;
+		private double[] value = EMPTY_ARRAY;
+
+		CachedArray(DoubleArraySubscriber subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		/** Never modify the result, it is shared until the next change */
+		double[] get() {
+			long change = subscriber.getLastChange();
+			if (change != lastChange) {
+				lastChange = change;
+				value = subscriber.get();
+			}
+			return value;
+		}
+	}
+
 	public Limelight(String limelightName) {
+		name = limelightName;
 		table = NetworkTableInstance.getDefault().getTable(limelightName);
+		tv = subscribe("tv");
+		tx = subscribe("tx");
+		ty = subscribe("ty");
+		ta = subscribe("ta");
+		ts = subscribe("ts");
+		tid = subscribe("tid");
+		// The latency changes on every frame, so its update time marks when a new frame arrived
+		tl = table.getDoubleTopic("tl").subscribe(0, PubSubOption.keepDuplicates(true));
+		cl = subscribe("cl");
+		botpose = subscribeArray("botpose");
+		botposeWpiRed = subscribeArray("botpose_wpired");
+		botposeWpiBlue = subscribeArray("botpose_wpiblue");
+		botposeTargetSpace = subscribeArray("botpose_targetspace");
+		targetPoseCameraSpace = subscribeArray("targetpose_cameraspace");
+		targetPoseRobotSpace = subscribeArray("targetpose_robotspace");
+		cameraPoseTargetSpace = subscribeArray("camerapose_targetspace");
+		pipeline = table.getDoubleTopic("pipeline").publish();
 		setPipeline(0);
 	}
 
+	public String getName() {
+		return name;
+	}
+
 	public boolean hasValidTargets() {
-		return getEntry("tv") == 1;
+		long change = tv.getLastChange();
+		if (change != targetChange) {
+			targetChange = change;
+			hasTarget = tv.get() == 1;
+		}
+		return hasTarget;
 	}
 
 	public Optional<Rotation2d> getHorizontalOffsetFromCrosshair() {
 		if (!hasValidTargets()) return Optional.empty();
 		return Optional.of(
-			Rotation2d.fromDegrees(-getEntry("tx"))
+			Rotation2d.fromDegrees(-tx.get())
 		);
 	}
 
+	/** Units are degrees, allocation free variant of {@link #getHorizontalOffsetFromCrosshair()} */
+	public double getHorizontalOffsetFromCrosshair(double defaultDegrees) {
+		if (!hasValidTargets()) return defaultDegrees;
+		return -tx.get();
+	}
+
 	public Optional<Rotation2d> getVerticalOffsetFromCrosshair() {
 		if (!hasValidTargets()) return Optional.empty();
 		return Optional.of(
-			Rotation2d.fromDegrees(getEntry("ty"))
+			Rotation2d.fromDegrees(ty.get())
 		);
 	}
 
+	/** Units are degrees, allocation free variant of {@link #getVerticalOffsetFromCrosshair()} */
+	public double getVerticalOffsetFromCrosshair(double defaultDegrees) {
+		if (!hasValidTargets()) return defaultDegrees;
+		return ty.get();
+	}
+
 	public Optional<Double> getTargetArea() {
 		if (!hasValidTargets()) return Optional.empty();
-		return Optional.of( 
-			getEntry("ta")
+		return Optional.of(
+			ta.get()
 		);
 	}
 
+	/** Units are percent of the image, allocation free variant of {@link #getTargetArea()} */
+	public double getTargetArea(double defaultArea) {
+		if (!hasValidTargets()) return defaultArea;
+		return ta.get();
+	}
+
 	public Optional<Rotation2d> getSkew() {
 		if (!hasValidTargets()) return Optional.empty();
-		double rawDegrees = getEntry("ts");
-		double adjustedDegrees;
-		if (Math.abs(rawDegrees) < 45) {
-			adjustedDegrees = -rawDegrees;
-		} else {
-			adjustedDegrees = -(90 + rawDegrees);
-		}
 		return Optional.of(
-			Rotation2d.fromDegrees(adjustedDegrees)
+			Rotation2d.fromDegrees(adjustSkew(ts.get()))
+		);
+	}
+
+	/** Units are degrees, allocation free variant of {@link #getSkew()} */
+	public double getSkew(double defaultDegrees) {
+		if (!hasValidTargets()) return defaultDegrees;
+		return adjustSkew(ts.get());
+	}
+
+	/**
+	 * Reads every value Vision uses in one pass so that a caller never mixes fields from
+	 * different camera frames. The frame ID only advances when the camera has published a new
+	 * frame since the previous capture.
+	 */
+	public LimelightFrame capture() {
+		TimestampedDouble pipelineLatency = tl.getAtomic();
+		if (pipelineLatency.timestamp != lastFrameTimestamp) {
+			lastFrameTimestamp = pipelineLatency.timestamp;
+			frameCount++;
+		}
+		boolean hasTarget = hasValidTargets();
+		return new LimelightFrame(
+			frameCount,
+			pipelineLatency.timestamp / 1e6,
+			(pipelineLatency.value + cl.get()) / 1000.0,
+			hasTarget,
+			hasTarget ? -tx.get() : 0,
+			hasTarget ? ty.get() : 0,
+			hasTarget ? ta.get() : 0,
+			hasTarget ? adjustSkew(ts.get()) : 0,
+			hasTarget ? (int) tid.get() : -1,
+			hasTarget ? readArray(botposeWpiBlue) : EMPTY_ARRAY,
+			hasTarget ? readArray(botposeWpiRed) : EMPTY_ARRAY,
+			hasTarget ? readArray(targetPoseRobotSpace) : EMPTY_ARRAY
 		);
 	}
 
 	public void setPipeline(int index) {
-		setEntry("pipeline", index);
+		pipeline.set(index);
 	}
 
-	private double getEntry(String key) {
-		return table.getEntry(key).getDouble(0);
+	private DoubleSubscriber subscribe(String key) {
+		return table.getDoubleTopic(key).subscribe(0);
 	}
 
-	private double[] getEntryArray(String key) {
-		return table.getEntry(key).getDoubleArray(new double[6]);
+	private CachedArray subscribeArray(String key) {
+		return new CachedArray(table.getDoubleArrayTopic(key).subscribe(EMPTY_ARRAY));
 	}
 
-	private void setEntry(String key, Number value) {
-		table.getEntry(key).setNumber(value);
+	private static double adjustSkew(double rawDegrees) {
+		if (Math.abs(rawDegrees) < 45) {
+			return -rawDegrees;
+		} else {
+			return -(90 + rawDegrees);
+		}
 	}
 
-	public Optional<Pose2d> getRobotPoseToField() {
+	/** Cached arrays are never modified, so they can be kept without copying */
+	private static double[] readArray(CachedArray subscriber) {
+		double[] raw = subscriber.get();
+		return raw.length < POSE_ARRAY_LENGTH ? EMPTY_ARRAY : raw;
+	}
+
+	/**
+	 * Copies the first {@link #POSE_ARRAY_LENGTH} elements of a pose array into {@code out}.
+	 * @return false if there is no target or the camera published a malformed array
+	 */
+	private boolean readPose(CachedArray subscriber, double[] out) {
+		if (!hasValidTargets()) return false;
+		double[] raw = subscriber.get();
+		if (raw.length < POSE_ARRAY_LENGTH) return false;
+		System.arraycopy(raw, 0, out, 0, POSE_ARRAY_LENGTH);
+		return true;
+	}
+
+	private Optional<Pose2d> readPose(CachedArray subscriber) {
 		if (!hasValidTargets()) return Optional.empty();
-		double[] raw = getEntryArray("botpose");
+		double[] raw = subscriber.get();
+		if (raw.length < POSE_ARRAY_LENGTH) return Optional.empty();
 		return Optional.of(new Pose2d(
 			raw[0], raw[1], Rotation2d.fromDegrees(raw[5])
 		));
 	}
 
-	public Optional<Pose2d> getRobotPoseToAlliance(Alliance alliance) {
-		if (!hasValidTargets()) return Optional.empty();
-		double[] raw = new double[6];
+	private CachedArray getAllianceSubscriber(Alliance alliance) {
 		switch(alliance) {
 			case Red:
-				raw = getEntryArray("botpose_wpired");
-                break;
+				return botposeWpiRed;
 			case Blue:
-				raw = getEntryArray("botpose_wpiblue");
-                break;
+				return botposeWpiBlue;
 			default:
-				break;
+				return null;
 		}
-		return Optional.of(new Pose2d(
-			raw[0], raw[1], Rotation2d.fromDegrees(raw[5])
-		));
+	}
+
+	public Optional<Pose2d> getRobotPoseToField() {
+		return readPose(botpose);
+	}
+
+	/** Fills {@code out} with x, y, z, roll, pitch, yaw. Units are meters and degrees */
+	public boolean getRobotPoseToField(double[] out) {
+		return readPose(botpose, out);
+	}
+
+	public Optional<Pose2d> getRobotPoseToAlliance(Alliance alliance) {
+		CachedArray subscriber = getAllianceSubscriber(alliance);
+		if (subscriber == null) return Optional.empty();
+		return readPose(subscriber);
+	}
+
+	/** Fills {@code out} with x, y, z, roll, pitch, yaw. Units are meters and degrees */
+	public boolean getRobotPoseToAlliance(Alliance alliance, double[] out) {
+		CachedArray subscriber = getAllianceSubscriber(alliance);
+		if (subscriber == null) return false;
+		return readPose(subscriber, out);
 	}
 
 	public Optional<Pose2d> getRobotPoseToTarget() {
-		if (!hasValidTargets()) return Optional.empty();
-		double[] raw = getEntryArray("botpose_targetspace");
-		return Optional.of(new Pose2d(
-			raw[0], raw[1], Rotation2d.fromDegrees(raw[5])
-		));
+		return readPose(botposeTargetSpace);
+	}
+
+	/** Fills {@code out} with x, y, z, roll, pitch, yaw. Units are meters and degrees */
+	public boolean getRobotPoseToTarget(double[] out) {
+		return readPose(botposeTargetSpace, out);
 	}
 
 	public Optional<Pose2d> getTargetPoseToCamera() {
-		if (!hasValidTargets()) return Optional.empty();
-		double[] raw = getEntryArray("targetpose_cameraspace");
-		return Optional.of(new Pose2d(
-			raw[0], raw[1], Rotation2d.fromDegrees(raw[5])
-		));
+		return readPose(targetPoseCameraSpace);
+	}
+
+	/** Fills {@code out} with x, y, z, roll, pitch, yaw. Units are meters and degrees */
+	public boolean getTargetPoseToCamera(double[] out) {
+		return readPose(targetPoseCameraSpace, out);
 	}
 
 	public Optional<Pose2d> getTargetPoseToRobot() {
-		if (!hasValidTargets()) return Optional.empty();
-		double[] raw = getEntryArray("targetpose_robotspace");
-		return Optional.of(new Pose2d(
-			raw[0], raw[1], Rotation2d.fromDegrees(raw[5])
-		));
+		return readPose(targetPoseRobotSpace);
+	}
+
+	/** Fills {@code out} with x, y, z, roll, pitch, yaw. Units are meters and degrees */
+	public boolean getTargetPoseToRobot(double[] out) {
+		return readPose(targetPoseRobotSpace, out);
 	}
 
 	public Optional<Pose2d> getCameraPoseToTarget() {
-		if (!hasValidTargets()) return Optional.empty();
-		double[] raw = getEntryArray("camerapose_targetspace");
-		return Optional.of(new Pose2d(
-			raw[0], raw[1], Rotation2d.fromDegrees(raw[5])
-		));
+		return readPose(cameraPoseTargetSpace);
+	}
+
+	/** Fills {@code out} with x, y, z, roll, pitch, yaw. Units are meters and degrees */
+	public boolean getCameraPoseToTarget(double[] out) {
+		return readPose(cameraPoseTargetSpace, out);
 	}
 
 	public Optional<Integer> getTargetTagId() {
 		if (!hasValidTargets()) return Optional.empty();
 		return Optional.of(
-			(int) getEntry("tid")
+			(int) tid.get()
 		);
 	}
+
+	/** Allocation free variant of {@link #getTargetTagId()} */
+	public int getTargetTagId(int defaultID) {
+		if (!hasValidTargets()) return defaultID;
+		return (int) tid.get();
+	}
 }
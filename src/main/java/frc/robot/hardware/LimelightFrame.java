@@ -0,0 +1,146 @@
+package frc.robot.hardware;
+
+import java.util.Optional;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * A copy of everything a {@link Limelight} published for one camera frame. Frames from
+ * {@link Limelight#capture()} are never changed. Frames that are reused with {@link #set} are only
+ * valid until their owner fills them again.
+ * <p> Offsets are sign adjusted the same way as the getters on {@link Limelight}.
+ */
+public class LimelightFrame {
+	/** Number of distinct camera frames the Limelight has seen, including this one */
+	public long frameId;
+	/** FPGA time in seconds at which the frame was received */
+	public double timestampSeconds;
+	/** Pipeline plus capture latency in seconds */
+	public double latencySeconds;
+	public boolean hasTarget;
+	/** Units are degrees */
+	public double horizontalOffset;
+	/** Units are degrees */
+	public double verticalOffset;
+	/** Units are percent of the image */
+	public double targetArea;
+	/** Units are degrees */
+	public double skew;
+	public int tagId;
+	/** x, y, z, roll, pitch, yaw, total latency in ms; empty if there is no pose */
+	public double[] botposeWpiBlue;
+	/** x, y, z, roll, pitch, yaw, total latency in ms; empty if there is no pose */
+	public double[] botposeWpiRed;
+	/** x, y, z, roll, pitch, yaw; empty if there is no pose */
+	public double[] targetPoseRobotSpace;
+
+	/** An empty frame to be filled with {@link #set} */
+	public LimelightFrame() {
+		this(0, 0, 0, false, 0, 0, 0, 0, -1, Limelight.EMPTY_ARRAY, Limelight.EMPTY_ARRAY, Limelight.EMPTY_ARRAY);
+	}
+
+	public LimelightFrame(
+		long frameId,
+		double timestampSeconds,
+		double latencySeconds,
+		boolean hasTarget,
+		double horizontalOffset,
+		double verticalOffset,
+		double targetArea,
+		double skew,
+		int tagId,
+		double[] botposeWpiBlue,
+		double[] botposeWpiRed,
+		double[] targetPoseRobotSpace
+	) {
+		set(
+			frameId,
+			timestampSeconds,
+			latencySeconds,
+			hasTarget,
+			horizontalOffset,
+			verticalOffset,
+			targetArea,
+			skew,
+			tagId,
+			botposeWpiBlue,
+			botposeWpiRed,
+			targetPoseRobotSpace
+		);
+	}
+
+	/** Overwrites every field, so a frame can be reused without allocating */
+	public LimelightFrame set(
+		long frameId,
+		double timestampSeconds,
+		double latencySeconds,
+		boolean hasTarget,
+		double horizontalOffset,
+		double verticalOffset,
+		double targetArea,
+		double skew,
+		int tagId,
+		double[] botposeWpiBlue,
+		double[] botposeWpiRed,
+		double[] targetPoseRobotSpace
+	) {
+		this.frameId = frameId;
+		this.timestampSeconds = timestampSeconds;
+		this.latencySeconds = latencySeconds;
+		this.hasTarget = hasTarget;
+		this.horizontalOffset = horizontalOffset;
+		this.verticalOffset = verticalOffset;
+		this.targetArea = targetArea;
+		this.skew = skew;
+		this.tagId = tagId;
+		this.botposeWpiBlue = botposeWpiBlue;
+		this.botposeWpiRed = botposeWpiRed;
+		this.targetPoseRobotSpace = targetPoseRobotSpace;
+		return this;
+	}
+
+	/** FPGA time in seconds at which the camera exposed the image */
+	public double getCaptureTimestamp() {
+		return timestampSeconds - latencySeconds;
+	}
+
+	/**
+	 * FPGA time in seconds at which the image behind the alliance pose was exposed. Newer
+	 * firmware appends its total latency to the pose array, which is preferred when present.
+	 */
+	public double getRobotPoseCaptureTimestamp(Alliance alliance) {
+		double[] raw = getRobotPoseArray(alliance);
+		if (raw.length > Limelight.POSE_ARRAY_LENGTH) {
+			return timestampSeconds - raw[Limelight.POSE_ARRAY_LENGTH] / 1000.0;
+		}
+		return getCaptureTimestamp();
+	}
+
+	public double[] getRobotPoseArray(Alliance alliance) {
+		switch (alliance) {
+			case Red:
+				return botposeWpiRed;
+			case Blue:
+				return botposeWpiBlue;
+			default:
+				return Limelight.EMPTY_ARRAY;
+		}
+	}
+
+	public Optional<Pose2d> getRobotPoseToAlliance(Alliance alliance) {
+		return toPose(getRobotPoseArray(alliance));
+	}
+
+	public Optional<Pose2d> getTargetPoseToRobot() {
+		return toPose(targetPoseRobotSpace);
+	}
+
+	private Optional<Pose2d> toPose(double[] raw) {
+		if (!hasTarget || raw.length < Limelight.POSE_ARRAY_LENGTH) return Optional.empty();
+		return Optional.of(new Pose2d(
+			raw[0], raw[1], Rotation2d.fromDegrees(raw[5])
+		));
+	}
+}
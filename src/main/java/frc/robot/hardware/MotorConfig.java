@@ -0,0 +1,112 @@
+package frc.robot.hardware;
+
+import com.pathplanner.lib.auto.PIDConstants;
+
+/**
+ * Every setting an {@link EncodedMotorController} supports, so a device can be configured in
+ * one batch with {@link EncodedMotorController#applyConfig(MotorConfig)} instead of one blocking
+ * call per setting.
+ */
+public class MotorConfig {
+	private int currentLimit = 0;
+	private PIDConstants pid = new PIDConstants(0, 0, 0);
+	private double minAngle = Double.NaN;
+	private double maxAngle = Double.NaN;
+	private double minOutput = -1;
+	private double maxOutput = 1;
+	private boolean inverted = false;
+	private boolean brakeOnIdle = false;
+	private double angleTolerance = 0;
+
+	/** Units are amps, 0 for no limit */
+	public MotorConfig setCurrentLimit(int currentLimit) {
+		this.currentLimit = currentLimit;
+		return this;
+	}
+
+	public MotorConfig setPID(PIDConstants pid) {
+		this.pid = pid;
+		return this;
+	}
+
+	/** Units are radians, NaN to disable the soft limit */
+	public MotorConfig setMinAngle(double minAngle) {
+		this.minAngle = minAngle;
+		return this;
+	}
+
+	/** Units are radians, NaN to disable the soft limit */
+	public MotorConfig setMaxAngle(double maxAngle) {
+		this.maxAngle = maxAngle;
+		return this;
+	}
+
+	/** Units are percent */
+	public MotorConfig setMinOutput(double minOutput) {
+		this.minOutput = minOutput;
+		return this;
+	}
+
+	/** Units are percent */
+	public MotorConfig setMaxOutput(double maxOutput) {
+		this.maxOutput = maxOutput;
+		return this;
+	}
+
+	public MotorConfig setInversion(boolean shouldInvert) {
+		this.inverted = shouldInvert;
+		return this;
+	}
+
+	public MotorConfig setBrakeOnIdle(boolean shouldBreak) {
+		this.brakeOnIdle = shouldBreak;
+		return this;
+	}
+
+	/** Units are radians */
+	public MotorConfig setAngleTolerance(double tolerance) {
+		this.angleTolerance = tolerance;
+		return this;
+	}
+
+	public int getCurrentLimit() {
+		return currentLimit;
+	}
+
+	public PIDConstants getPID() {
+		return pid;
+	}
+
+	public double getMinAngle() {
+		return minAngle;
+	}
+
+	public double getMaxAngle() {
+		return maxAngle;
+	}
+
+	public double getMinOutput() {
+		return minOutput;
+	}
+
+	public double getMaxOutput() {
+		return maxOutput;
+	}
+
+	public boolean getInversion() {
+		return inverted;
+	}
+
+	public boolean getBrakeOnIdle() {
+		return brakeOnIdle;
+	}
+
+	public double getAngleTolerance() {
+		return angleTolerance;
+	}
+
+	/** Whether a value read back from a device matches what was written, allowing for rounding */
+	static boolean matches(double expected, double actual) {
+		return Math.abs(expected - actual) <= 1e-3 + Math.abs(expected) * 1e-3;
+	}
+}
@@ -0,0 +1,141 @@
+package frc.robot.hardware;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.utilities.DashboardPublisher;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Applies {@link MotorConfig}s on background threads, one device per task, so every device
+ * configures in parallel and robotInit does not wait on CAN round trips. Failures are reported
+ * to the driver station as errors.
+ * <p> {@link #check()} must run before the robot enables. A device that failed or did not finish
+ * in time raises a fault that stays on the dashboard and in the log, and is reported again every
+ * time the robot enables.
+ */
+public class MotorConfigurator {
+	private static MotorConfigurator instance;
+
+	private static final int THREAD_COUNT = 4;
+	/** How long the first check waits for devices that are still configuring */
+	private static final double CHECK_TIMEOUT_SECONDS = 5;
+
+	private final ExecutorService executor;
+	private final List<CompletableFuture<Boolean>> pending = new ArrayList<>();
+	private final AtomicInteger failureCount = new AtomicInteger();
+	private boolean isChecked;
+	private boolean isFaulted;
+	private volatile String status = "Configuring";
+
+	private MotorConfigurator() {
+		executor = Executors.newFixedThreadPool(THREAD_COUNT, runnable -> {
+			Thread thread = new Thread(runnable, "MotorConfigurator");
+			thread.setDaemon(true);
+			return thread;
+		});
+		DashboardPublisher.getInstance().addString("Display", "Motor Config", () -> status);
+	}
+
+	public static synchronized MotorConfigurator getInstance() {
+		if (instance == null) instance = new MotorConfigurator();
+		return instance;
+	}
+
+	/**
+	 * Queues {@code config} to be applied to {@code motor} in the background.
+	 * @param name used when reporting a failure
+	 * @return completes with whether the device was configured and verified
+	 */
+	public synchronized CompletableFuture<Boolean> submit(
+		String name,
+		EncodedMotorController motor,
+		MotorConfig config
+	) {
+		CompletableFuture<Boolean> result = CompletableFuture
+			.supplyAsync(() -> motor.applyConfig(config), executor)
+			.exceptionally(exception -> {
+				DriverStation.reportError(name + " threw while configuring: " + exception, false);
+				return false;
+			})
+			.thenApply(applied -> {
+				if (!applied) {
+					failureCount.incrementAndGet();
+					DriverStation.reportError(name + " could not be configured", false);
+				}
+				return applied;
+			});
+		pending.add(result);
+		return result;
+	}
+
+	public int getFailureCount() {
+		return failureCount.get();
+	}
+
+	public synchronized boolean isComplete() {
+		for (CompletableFuture<Boolean> result : pending) {
+			if (!result.isDone()) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Waits for every device on the first call and raises the fault if any was not configured.
+	 * Later calls only report an existing fault again. Main thread only.
+	 * @return whether every device was configured
+	 */
+	public boolean check() {
+		if (!isChecked) {
+			isChecked = true;
+			isFaulted = !awaitAll(CHECK_TIMEOUT_SECONDS);
+			status = isFaulted ? "FAULT: " + getFaultedCount() + " device(s) not configured" : "OK";
+			Logger logger = Logger.getInstance();
+			logger.recordOutput("MotorConfigurator/Faulted", isFaulted);
+			logger.recordOutput("MotorConfigurator/Failure Count", getFaultedCount());
+		}
+		if (isFaulted) DriverStation.reportError("Motors are misconfigured, " + status, false);
+		return !isFaulted;
+	}
+
+	public boolean isFaulted() {
+		return isFaulted;
+	}
+
+	/** Devices that failed plus devices that have not finished */
+	private synchronized int getFaultedCount() {
+		int count = failureCount.get();
+		for (CompletableFuture<Boolean> result : pending) {
+			if (!result.isDone()) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Blocks until every submitted device is done or the timeout passes.
+	 * @return whether every device was configured in time
+	 */
+	public boolean awaitAll(double timeoutSeconds) {
+		CompletableFuture<Void> all;
+		synchronized (this) {
+			all = CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
+		}
+		try {
+			all.get((long) (timeoutSeconds * 1000), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException exception) {
+			DriverStation.reportError("Motor configuration timed out", false);
+			return false;
+		} catch (Exception exception) {
+			return false;
+		}
+		return failureCount.get() == 0;
+	}
+}
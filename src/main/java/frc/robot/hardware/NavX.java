@@ -7,24 +7,83 @@
 
 package frc.robot.hardware;
 
+import com.kauailabs.navx.AHRSProtocol.AHRSUpdateBase;
 import com.kauailabs.navx.frc.AHRS;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.SPI.Port;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.utilities.ExtendedMath;
+import frc.robot.utilities.TimestampedBuffer;
 
 public class NavX {
+	/** The NavX's maximum fused update rate */
+	private static final byte UPDATE_RATE_HZ = (byte) 200;
+	/** About a second and a quarter of history at the full update rate */
+	private static final int HISTORY_SIZE = 256;
+	/** Window used to estimate the yaw rate, units are seconds */
+	private static final double RATE_WINDOW = 0.03;
+	/** Furthest {@link #yawAt(double)} projects past the newest sample, units are seconds */
+	private static final double MAX_EXTRAPOLATION = 0.02;
+	/** How fast the two clocks may drift apart, units are seconds per second */
+	private static final double CLOCK_DRIFT = 1e-4;
+
 	private AHRS ahrs;
 	private Rotation2d gyroZero;
+	/** Unwrapped yaw in radians, counterclockwise positive, written by the NavX IO thread */
+	private TimestampedBuffer yawHistory;
+	private double lastSampleYaw;
+	private double unwrappedYaw;
+	/** FPGA time minus NavX time, both in seconds, written by the NavX IO thread */
+	private double clockOffset = Double.NaN;
+	private double lastSensorTime;
+	/** In simulation the yaw comes from {@link #setSimulatedYaw(double)} instead of the AHRS */
+	private final boolean isSimulated = RobotBase.isSimulation();
+	private volatile double simulatedYaw;
 
 	public NavX(edu.wpi.first.wpilibj.I2C.Port kmxp) {
-		ahrs = new AHRS(kmxp);
-		gyroZero = new Rotation2d();
+		this(new AHRS(kmxp, UPDATE_RATE_HZ));
 	}
 
 	public NavX(Port kmxp) {
-		ahrs = new AHRS(kmxp);
+		this(new AHRS(kmxp, UPDATE_RATE_HZ));
+	}
+
+	private NavX(AHRS ahrs) {
+		this.ahrs = ahrs;
 		gyroZero = new Rotation2d();
+		yawHistory = new TimestampedBuffer(HISTORY_SIZE);
+		ahrs.registerCallback(this::onSample, null);
+	}
+
+	/** Called from the NavX IO thread for every new fused sample */
+	private void onSample(long systemTimestamp, long sensorTimestamp, AHRSUpdateBase data, Object context) {
+		double yaw = Math.toRadians(-data.yaw);
+		if (yawHistory.isEmpty()) {
+			unwrappedYaw = yaw;
+		} else {
+			unwrappedYaw += MathUtil.angleModulus(yaw - lastSampleYaw);
+		}
+		lastSampleYaw = yaw;
+		yawHistory.add(toFpgaTime(sensorTimestamp / 1000.0), unwrappedYaw);
+	}
+
+	/**
+	 * Maps the NavX's own sample time onto the FPGA clock. Every sample arrives some delay after it
+	 * was taken, so the smallest offset seen is the closest to the true one. It is allowed to creep
+	 * up slowly so the clocks can drift, and starts over if the NavX restarts its clock.
+	 */
+	private double toFpgaTime(double sensorTime) {
+		double offset = Timer.getFPGATimestamp() - sensorTime;
+		if (Double.isNaN(clockOffset) || sensorTime < lastSensorTime) {
+			clockOffset = offset;
+		} else {
+			clockOffset = Math.min(clockOffset + CLOCK_DRIFT * (sensorTime - lastSensorTime), offset);
+		}
+		lastSensorTime = sensorTime;
+		return sensorTime + clockOffset;
 	}
 
 	public AHRS getAHRS() {
@@ -47,7 +106,51 @@ public class NavX {
 
 	/** Interval: [-pi, pi] */
 	public Rotation2d getYaw() {
-		return Rotation2d.fromDegrees(-ahrs.getYaw());
+		return Rotation2d.fromRadians(getYawRadians());
+	}
+
+	/** Allocation free variant of {@link #getYaw()}. Units are radians, interval: [-pi, pi] */
+	public double getYawRadians() {
+		if (isSimulated) return MathUtil.angleModulus(simulatedYaw);
+		return Math.toRadians(-ahrs.getYaw());
+	}
+
+	/**
+	 * Sets the yaw a simulated robot reads and records it as a sample, standing in for the NavX
+	 * IO thread. Only call from one thread.
+	 * @param yaw unwrapped, units are radians, counterclockwise positive
+	 */
+	public void setSimulatedYaw(double yaw) {
+		simulatedYaw = yaw;
+		yawHistory.add(Timer.getFPGATimestamp(), yaw);
+	}
+
+	/**
+	 * The yaw at an FPGA timestamp, interpolated between NavX samples. Times just past the newest
+	 * sample are projected forward with the yaw rate. Uses the same frame as {@link #getYaw()}, so
+	 * the gyro zero is not applied.
+	 * <p> Units are radians, interval: [-pi, pi]
+	 */
+	public double yawAt(double timestamp) {
+		if (yawHistory.isEmpty()) return getYawRadians();
+		double ahead = timestamp - yawHistory.getLatestTimestamp();
+		if (ahead <= 0) return MathUtil.angleModulus(yawHistory.getAt(timestamp, 0));
+		double latest = yawHistory.getLatestValue(0);
+		return MathUtil.angleModulus(latest + getYawRate() * Math.min(ahead, MAX_EXTRAPOLATION));
+	}
+
+	/** Estimated from the sample history. Units are radians/sec, counterclockwise positive */
+	public double getYawRate() {
+		double latestTimestamp = yawHistory.getLatestTimestamp();
+		if (Double.isNaN(latestTimestamp)) return 0;
+		double latest = yawHistory.getLatestValue(0);
+		double earlier = yawHistory.getAt(latestTimestamp - RATE_WINDOW, latest);
+		return (latest - earlier) / RATE_WINDOW;
+	}
+
+	/** Units are seconds */
+	public double getLatestSampleTimestamp() {
+		return yawHistory.getLatestTimestamp();
 	}
 
 	/** Interval: [-pi, pi] */
@@ -60,6 +163,39 @@ public class NavX {
 		return Rotation2d.fromDegrees(-ahrs.getRoll());
 	}
 
+	/**
+	 * How far the robot is tilted from level, from the NavX's fused quaternion. Does not allocate,
+	 * so balance and anti-tip logic can poll it every cycle.
+	 * <p> Units are radians, interval: [0, pi]
+	 */
+	public double getTilt() {
+		return ExtendedMath.getTilt(
+			ahrs.getQuaternionW(),
+			ahrs.getQuaternionX(),
+			ahrs.getQuaternionY(),
+			ahrs.getQuaternionZ()
+		);
+	}
+
+	/**
+	 * Robot relative direction the top of the robot is leaning toward, 0 is forward and
+	 * counterclockwise is positive. Assumes the board axes line up with the robot's.
+	 * <p> Units are radians, interval: [-pi, pi]
+	 */
+	public double getTiltDirection() {
+		return ExtendedMath.getTiltDirection(
+			ahrs.getQuaternionW(),
+			ahrs.getQuaternionX(),
+			ahrs.getQuaternionY(),
+			ahrs.getQuaternionZ()
+		);
+	}
+
+	/** Units are radians */
+	public boolean isTilted(double threshold) {
+		return getTilt() > threshold;
+	}
+
 	/** Interval: [-pi, pi] */
 	public Rotation2d getGyroZero() {
 		return gyroZero;
@@ -0,0 +1,268 @@
+package frc.robot.hardware;
+
+import com.pathplanner.lib.auto.PIDConstants;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import frc.robot.simulation.PhysicsSim;
+
+/**
+ * A motor and its mechanism simulated with WPILib's physics models and stepped by
+ * {@link PhysicsSim}. Closed loop control runs on every physics step like it would on the
+ * controller, and PID gains use the same units as {@link SparkMaxMotorController}: error in
+ * rotations or RPM, output in percent.
+ * <p> Like the real controllers, angles and velocities are measured at the motor shaft. Current
+ * limits and coast mode are not modeled.
+ */
+public class SimMotorController implements EncodedMotorController, PhysicsSim.Body {
+	private static final double NOMINAL_VOLTAGE = 12;
+
+	private final DCMotorSim positionSim;
+	private final FlywheelSim flywheelSim;
+	private final double gearing;
+
+	private ControlMode mode = ControlMode.Output;
+	private double setpoint;
+	private double output;
+	private PIDConstants pid = new PIDConstants(0, 0, 0);
+	private double integral;
+	private double lastError;
+	private double minAngle = Double.NaN;
+	private double maxAngle = Double.NaN;
+	private double minOutput = -1;
+	private double maxOutput = 1;
+	private boolean inverted;
+
+	/** Motor shaft state, written by the physics step */
+	private volatile double simAngle;
+	private volatile double simAngularVelocity;
+	/** Motor shaft state as of the last refresh */
+	private volatile double angle;
+	private volatile double angularVelocity;
+	private volatile double sensorTimestamp;
+
+	private static enum ControlMode {
+		Output,
+		AngularVelocity,
+		Angle
+	}
+
+	private SimMotorController(DCMotorSim positionSim, FlywheelSim flywheelSim, double gearing) {
+		this.positionSim = positionSim;
+		this.flywheelSim = flywheelSim;
+		this.gearing = gearing;
+		if (positionSim != null || flywheelSim != null) PhysicsSim.getInstance().add(this);
+	}
+
+	/**
+	 * A mechanism whose position matters, such as an arm or a swerve module's steering.
+	 * @param gearing motor rotations per mechanism rotation
+	 * @param momentOfInertia of the mechanism, units are kg m^2
+	 */
+	public static SimMotorController positional(DCMotor gearbox, double gearing, double momentOfInertia) {
+		return new SimMotorController(new DCMotorSim(gearbox, gearing, momentOfInertia), null, gearing);
+	}
+
+	/**
+	 * A mechanism that only spins, such as a shooter wheel. Position is integrated from velocity.
+	 * @param gearing motor rotations per mechanism rotation
+	 * @param momentOfInertia of the mechanism, units are kg m^2
+	 */
+	public static SimMotorController flywheel(DCMotor gearbox, double gearing, double momentOfInertia) {
+		return new SimMotorController(null, new FlywheelSim(gearbox, gearing, momentOfInertia), gearing);
+	}
+
+	/**
+	 * A motor that accepts commands but never moves, for replay where nothing is simulated and
+	 * sensor values come from the log. It is not added to {@link PhysicsSim}.
+	 */
+	public static SimMotorController unsimulated() {
+		return new SimMotorController(null, null, 1);
+	}
+
+	@Override
+	public void step(double dt) {
+		double shaftAngle = simAngle;
+		double shaftVelocity = simAngularVelocity;
+		double percent;
+		switch (mode) {
+			case Angle:
+				percent = calculatePID(Units.radiansToRotations(setpoint - shaftAngle), dt);
+				break;
+			case AngularVelocity:
+				percent = calculatePID(
+					Units.radiansPerSecondToRotationsPerMinute(setpoint - shaftVelocity),
+					dt
+				);
+				break;
+			default:
+				percent = setpoint;
+				break;
+		}
+		percent = MathUtil.clamp(percent, minOutput, maxOutput);
+		if (!Double.isNaN(maxAngle) && shaftAngle >= maxAngle && percent > 0) percent = 0;
+		if (!Double.isNaN(minAngle) && shaftAngle <= minAngle && percent < 0) percent = 0;
+		output = percent;
+
+		double voltage = (inverted ? -percent : percent) * NOMINAL_VOLTAGE;
+		double direction = inverted ? -1 : 1;
+		if (positionSim != null) {
+			positionSim.setInputVoltage(voltage);
+			positionSim.update(dt);
+			simAngle = positionSim.getAngularPositionRad() * gearing * direction;
+			simAngularVelocity = positionSim.getAngularVelocityRadPerSec() * gearing * direction;
+		} else {
+			flywheelSim.setInputVoltage(voltage);
+			flywheelSim.update(dt);
+			simAngularVelocity = flywheelSim.getAngularVelocityRadPerSec() * gearing * direction;
+			simAngle = shaftAngle + simAngularVelocity * dt;
+		}
+	}
+
+	private double calculatePID(double error, double dt) {
+		integral += error * dt;
+		double derivative = (error - lastError) / dt;
+		lastError = error;
+		return pid.kP * error + pid.kI * integral + pid.kD * derivative;
+	}
+
+	/** Motor shaft position straight from the physics model, for other simulated bodies */
+	public double getSimulatedAngle() {
+		return simAngle;
+	}
+
+	/** Motor shaft velocity straight from the physics model, for other simulated bodies */
+	public double getSimulatedAngularVelocity() {
+		return simAngularVelocity;
+	}
+
+	/** Units are amps */
+	public double getCurrentDraw() {
+		if (positionSim != null) return positionSim.getCurrentDrawAmps();
+		if (flywheelSim != null) return flywheelSim.getCurrentDrawAmps();
+		return 0;
+	}
+
+	private void setMode(ControlMode newMode, double newSetpoint) {
+		if (newMode != mode) {
+			integral = 0;
+			lastError = 0;
+		}
+		mode = newMode;
+		setpoint = newSetpoint;
+	}
+
+	@Override
+	public void setAngularVelocity(double targetAngularVelocity) {
+		setMode(ControlMode.AngularVelocity, targetAngularVelocity);
+	}
+
+	@Override
+	public double getAngularVelocity() {
+		return angularVelocity;
+	}
+
+	@Override
+	public void setAngle(double targetAngle) {
+		setMode(ControlMode.Angle, targetAngle);
+	}
+
+	@Override
+	public double getAngle() {
+		return angle;
+	}
+
+	@Override
+	public void refreshSensors() {
+		angle = simAngle;
+		angularVelocity = simAngularVelocity;
+		sensorTimestamp = Timer.getFPGATimestamp();
+	}
+
+	@Override
+	public double getSensorTimestamp() {
+		return sensorTimestamp;
+	}
+
+	@Override
+	public EncodedMotorController setSensorUpdatePeriod(int periodMs) {
+		// Simulated sensors are always current
+		return this;
+	}
+
+	@Override
+	public void setOutput(double targetOutput) {
+		setMode(ControlMode.Output, targetOutput);
+	}
+
+	@Override
+	public double getOutput() {
+		return output;
+	}
+
+	@Override
+	public EncodedMotorController setCurrentLimit(int currentLimit) {
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setPID(PIDConstants pid) {
+		this.pid = pid;
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setMinAngle(double minAngle) {
+		this.minAngle = minAngle;
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setMaxAngle(double maxAngle) {
+		this.maxAngle = maxAngle;
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setMinOutput(double minOutput) {
+		this.minOutput = minOutput;
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setMaxOutput(double maxOutput) {
+		this.maxOutput = maxOutput;
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setInversion(boolean shouldInvert) {
+		inverted = shouldInvert;
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setBrakeOnIdle(boolean shouldBreak) {
+		return this;
+	}
+
+	@Override
+	public EncodedMotorController setAngleTolerance(double tolerance) {
+		return this;
+	}
+
+	@Override
+	public boolean applyConfig(MotorConfig config) {
+		pid = config.getPID();
+		minAngle = config.getMinAngle();
+		maxAngle = config.getMaxAngle();
+		minOutput = config.getMinOutput();
+		maxOutput = config.getMaxOutput();
+		inverted = config.getInversion();
+		return true;
+	}
+}
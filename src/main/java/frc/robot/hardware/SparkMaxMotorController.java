@@ -2,23 +2,56 @@ package frc.robot.hardware;
 
 import com.pathplanner.lib.auto.PIDConstants;
 import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkMaxPIDController;
 
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.Timer;
 
 public class SparkMaxMotorController extends CANSparkMax implements EncodedMotorController {
+	private static final int CONFIG_ATTEMPTS = 3;
+
+	private RelativeEncoder encoder;
+	private SparkMaxPIDController pidController;
+	private volatile double angle;
+	private volatile double angularVelocity;
+	private volatile double sensorTimestamp;
+
 	public SparkMaxMotorController(int deviceID, MotorType type) {
 		super(deviceID, type);
+		encoder = getEncoder();
+		pidController = getPIDController();
+	}
+
+	@Override
+	public void refreshSensors() {
+		angle = Units.rotationsToRadians(encoder.getPosition());
+		angularVelocity = Units.rotationsPerMinuteToRadiansPerSecond(encoder.getVelocity());
+		sensorTimestamp = Timer.getFPGATimestamp();
+	}
+
+	@Override
+	public double getSensorTimestamp() {
+		return sensorTimestamp;
+	}
+
+	@Override
+	public EncodedMotorController setSensorUpdatePeriod(int periodMs) {
+		// Status 1 carries velocity, status 2 carries position
+		setPeriodicFramePeriod(PeriodicFrame.kStatus1, periodMs);
+		setPeriodicFramePeriod(PeriodicFrame.kStatus2, periodMs);
+		return this;
 	}
 
     @Override
 	public double getAngle() {
-		return Units.rotationsToRadians(getEncoder().getPosition());
+		return angle;
 	}
 
     @Override
 	public void setAngle(double position) {
-		getPIDController()
+		pidController
 			.setReference(Units.radiansToRotations(position), ControlType.kPosition);
 	}
 
@@ -34,12 +67,12 @@ public class SparkMaxMotorController extends CANSparkMax implements EncodedMotor
 
     @Override
 	public double getAngularVelocity() {
-		return Units.rotationsPerMinuteToRadiansPerSecond(getEncoder().getVelocity());
+		return angularVelocity;
 	}
 	
     @Override
 	public void setAngularVelocity(double velocity) {
-		getPIDController()
+		pidController
 			.setReference(
 				Units.radiansPerSecondToRotationsPerMinute(velocity),
 				ControlType.kVelocity
@@ -54,10 +87,9 @@ public class SparkMaxMotorController extends CANSparkMax implements EncodedMotor
 
 	@Override
 	public EncodedMotorController setPID(PIDConstants pid) {
-		SparkMaxPIDController controller = getPIDController();
-		controller.setP(pid.kP);
-		controller.setI(pid.kI);
-		controller.setD(pid.kD);
+		pidController.setP(pid.kP);
+		pidController.setI(pid.kI);
+		pidController.setD(pid.kD);
 		return this;
 	}
 
@@ -75,15 +107,13 @@ public class SparkMaxMotorController extends CANSparkMax implements EncodedMotor
 
 	@Override
 	public EncodedMotorController setMinOutput(double minOutput) {
-		SparkMaxPIDController controller = getPIDController();
-		controller.setOutputRange(minOutput, controller.getOutputMax());
+		pidController.setOutputRange(minOutput, pidController.getOutputMax());
 		return this;
 	}
 
 	@Override
 	public EncodedMotorController setMaxOutput(double maxOutput) {
-		SparkMaxPIDController controller = getPIDController();
-		controller.setOutputRange(controller.getOutputMin(), maxOutput);
+		pidController.setOutputRange(pidController.getOutputMin(), maxOutput);
 		return this;
 	}
 
@@ -108,4 +138,74 @@ public class SparkMaxMotorController extends CANSparkMax implements EncodedMotor
 		// Not possible on a spark max
 		return this;
 	}
+
+	/**
+	 * Flash has a limited number of writes, so it is only burned when the device did not already
+	 * hold the config. The current limit cannot be read back, so it is written every time but does
+	 * not decide whether to burn.
+	 */
+	@Override
+	public boolean applyConfig(MotorConfig config) {
+		boolean alreadyApplied = matches(config);
+		for (int attempt = 0; attempt < CONFIG_ATTEMPTS; attempt++) {
+			if (tryApplyConfig(config) && (alreadyApplied || burnFlash() == REVLibError.kOk)) return true;
+		}
+		return false;
+	}
+
+	private boolean tryApplyConfig(MotorConfig config) {
+		boolean forwardLimitEnabled = !Double.isNaN(config.getMaxAngle());
+		boolean reverseLimitEnabled = !Double.isNaN(config.getMinAngle());
+
+		// Every write is attempted even after a failure so one pass reports all of them
+		boolean succeeded = true;
+		if (config.getCurrentLimit() > 0) {
+			succeeded &= setSmartCurrentLimit(config.getCurrentLimit()) == REVLibError.kOk;
+		}
+		succeeded &= pidController.setP(config.getPID().kP) == REVLibError.kOk;
+		succeeded &= pidController.setI(config.getPID().kI) == REVLibError.kOk;
+		succeeded &= pidController.setD(config.getPID().kD) == REVLibError.kOk;
+		// Both ends at once, rather than reading back the other end like setMinOutput does
+		succeeded &= pidController.setOutputRange(config.getMinOutput(), config.getMaxOutput()) == REVLibError.kOk;
+		succeeded &= enableSoftLimit(SoftLimitDirection.kForward, forwardLimitEnabled) == REVLibError.kOk;
+		succeeded &= enableSoftLimit(SoftLimitDirection.kReverse, reverseLimitEnabled) == REVLibError.kOk;
+		if (forwardLimitEnabled) {
+			succeeded &= setSoftLimit(
+				SoftLimitDirection.kForward,
+				(float) Units.radiansToRotations(config.getMaxAngle())
+			) == REVLibError.kOk;
+		}
+		if (reverseLimitEnabled) {
+			succeeded &= setSoftLimit(
+				SoftLimitDirection.kReverse,
+				(float) Units.radiansToRotations(config.getMinAngle())
+			) == REVLibError.kOk;
+		}
+		succeeded &= setIdleMode(config.getBrakeOnIdle() ? IdleMode.kBrake : IdleMode.kCoast) == REVLibError.kOk;
+		super.setInverted(config.getInversion());
+		return succeeded && matches(config);
+	}
+
+	/** Whether every setting that can be read back from the device equals the config */
+	private boolean matches(MotorConfig config) {
+		boolean forwardLimitEnabled = !Double.isNaN(config.getMaxAngle());
+		boolean reverseLimitEnabled = !Double.isNaN(config.getMinAngle());
+		return MotorConfig.matches(config.getPID().kP, pidController.getP())
+			&& MotorConfig.matches(config.getPID().kI, pidController.getI())
+			&& MotorConfig.matches(config.getPID().kD, pidController.getD())
+			&& MotorConfig.matches(config.getMinOutput(), pidController.getOutputMin())
+			&& MotorConfig.matches(config.getMaxOutput(), pidController.getOutputMax())
+			&& isSoftLimitEnabled(SoftLimitDirection.kForward) == forwardLimitEnabled
+			&& isSoftLimitEnabled(SoftLimitDirection.kReverse) == reverseLimitEnabled
+			&& (!forwardLimitEnabled || MotorConfig.matches(
+				Units.radiansToRotations(config.getMaxAngle()),
+				getSoftLimit(SoftLimitDirection.kForward)
+			))
+			&& (!reverseLimitEnabled || MotorConfig.matches(
+				Units.radiansToRotations(config.getMinAngle()),
+				getSoftLimit(SoftLimitDirection.kReverse)
+			))
+			&& getIdleMode() == (config.getBrakeOnIdle() ? IdleMode.kBrake : IdleMode.kCoast)
+			&& getInverted() == config.getInversion();
+	}
 }
@@ -1,16 +1,29 @@
 package frc.robot.hardware;
 
+import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
+import com.ctre.phoenix.motorcontrol.StatusFrame;
 import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
 import com.ctre.phoenix.motorcontrol.can.BaseTalon;
+import com.ctre.phoenix.motorcontrol.can.BaseTalonConfiguration;
 import com.ctre.phoenix.motorcontrol.can.TalonFX;
+import com.ctre.phoenix.motorcontrol.can.TalonFXConfiguration;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.ctre.phoenix.motorcontrol.can.TalonSRXConfiguration;
 import com.pathplanner.lib.auto.PIDConstants;
 
+import edu.wpi.first.wpilibj.Timer;
+
 public class TalonMotorController implements EncodedMotorController{
+    private static final int CONFIG_TIMEOUT_MS = 100;
+    private static final int CONFIG_ATTEMPTS = 3;
+
     private TalonModel model;
     private BaseTalon innerTalon;
+    private volatile double angle;
+    private volatile double angularVelocity;
+    private volatile double sensorTimestamp;
 
     public TalonMotorController(int deviceID, TalonModel model) {
         switch (model) {
@@ -59,7 +72,7 @@ public class TalonMotorController implements EncodedMotorController{
 
     @Override
     public double getAngularVelocity() {
-        return innerTalon.getSelectedSensorVelocity() / model.ticksPerRadian * 10;
+        return angularVelocity;
     }
 
     @Override
@@ -73,7 +86,26 @@ public class TalonMotorController implements EncodedMotorController{
 
     @Override
     public double getAngle() {
-        return innerTalon.getSelectedSensorPosition() / model.ticksPerRadian;
+        return angle;
+    }
+
+    @Override
+    public void refreshSensors() {
+        angle = innerTalon.getSelectedSensorPosition() / model.ticksPerRadian;
+        angularVelocity = innerTalon.getSelectedSensorVelocity() / model.ticksPerRadian * 10;
+        sensorTimestamp = Timer.getFPGATimestamp();
+    }
+
+    @Override
+    public double getSensorTimestamp() {
+        return sensorTimestamp;
+    }
+
+    @Override
+    public EncodedMotorController setSensorUpdatePeriod(int periodMs) {
+        // Feedback 0 carries the selected sensor position and velocity
+        innerTalon.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, periodMs);
+        return this;
     }
 
     @Override
@@ -145,4 +177,119 @@ public class TalonMotorController implements EncodedMotorController{
         innerTalon.configAllowableClosedloopError(0, tolerance * model.ticksPerRadian);
         return this;
     }
+
+    @Override
+    public boolean applyConfig(MotorConfig config) {
+        for (int attempt = 0; attempt < CONFIG_ATTEMPTS; attempt++) {
+            if (tryApplyConfig(config)) return true;
+        }
+        return false;
+    }
+
+    private boolean tryApplyConfig(MotorConfig config) {
+        ErrorCode error;
+        BaseTalonConfiguration written;
+        BaseTalonConfiguration readback;
+        switch (model) {
+            case TalonFX: {
+                TalonFXConfiguration settings = new TalonFXConfiguration();
+                fillConfiguration(settings, config);
+                settings.supplyCurrLimit = new SupplyCurrentLimitConfiguration(
+                    config.getCurrentLimit() > 0,
+                    config.getCurrentLimit(),
+                    config.getCurrentLimit() + 1,
+                    0.1
+                );
+                error = ((TalonFX) innerTalon).configAllSettings(settings, CONFIG_TIMEOUT_MS);
+                TalonFXConfiguration actual = new TalonFXConfiguration();
+                ((TalonFX) innerTalon).getAllConfigs(actual, CONFIG_TIMEOUT_MS);
+                if (!verifySupplyCurrentLimit(settings.supplyCurrLimit, actual.supplyCurrLimit)) return false;
+                written = settings;
+                readback = actual;
+                break;
+            }
+            case TalonSRX: {
+                TalonSRXConfiguration settings = new TalonSRXConfiguration();
+                fillConfiguration(settings, config);
+                settings.continuousCurrentLimit = config.getCurrentLimit();
+                settings.peakCurrentLimit = config.getCurrentLimit() + 1;
+                settings.peakCurrentDuration = 100;
+                error = ((TalonSRX) innerTalon).configAllSettings(settings, CONFIG_TIMEOUT_MS);
+                // Whether the limit is enabled is not part of the configuration, so it cannot be read back
+                ((TalonSRX) innerTalon).enableCurrentLimit(config.getCurrentLimit() > 0);
+                TalonSRXConfiguration actual = new TalonSRXConfiguration();
+                ((TalonSRX) innerTalon).getAllConfigs(actual, CONFIG_TIMEOUT_MS);
+                if (
+                    actual.continuousCurrentLimit != settings.continuousCurrentLimit
+                    || actual.peakCurrentLimit != settings.peakCurrentLimit
+                    || actual.peakCurrentDuration != settings.peakCurrentDuration
+                ) return false;
+                written = settings;
+                readback = actual;
+                break;
+            }
+            default:
+                return false;
+        }
+        // Inversion and neutral mode are not part of the persistent configuration
+        innerTalon.setInverted(config.getInversion());
+        innerTalon.setNeutralMode(config.getBrakeOnIdle() ? NeutralMode.Brake : NeutralMode.Coast);
+
+        return error == ErrorCode.OK && verifyConfiguration(written, readback);
+    }
+
+    /**
+     * Settings shared by both models, including the ones the constructor used to set one by one.
+     * Positions are whole sensor ticks, the same as the device stores them, so they read back equal.
+     */
+    private void fillConfiguration(BaseTalonConfiguration settings, MotorConfig config) {
+        settings.slot0.kP = config.getPID().kP;
+        settings.slot0.kI = config.getPID().kI;
+        settings.slot0.kD = config.getPID().kD;
+        settings.slot0.integralZone = 0;
+        settings.slot0.allowableClosedloopError = Math.round(config.getAngleTolerance() * model.ticksPerRadian);
+        settings.peakOutputForward = config.getMaxOutput();
+        settings.peakOutputReverse = config.getMinOutput();
+        settings.forwardSoftLimitEnable = !Double.isNaN(config.getMaxAngle());
+        settings.forwardSoftLimitThreshold = settings.forwardSoftLimitEnable
+            ? Math.round(config.getMaxAngle() * model.ticksPerRadian)
+            : 0;
+        settings.reverseSoftLimitEnable = !Double.isNaN(config.getMinAngle());
+        settings.reverseSoftLimitThreshold = settings.reverseSoftLimitEnable
+            ? Math.round(config.getMinAngle() * model.ticksPerRadian)
+            : 0;
+        if (model == TalonModel.TalonFX) {
+            settings.motionCruiseVelocity = 10000;
+            settings.motionAcceleration = 10000;
+            settings.clearPositionOnQuadIdx = true;
+        }
+    }
+
+    /** Whether every setting {@link #fillConfiguration} writes was read back unchanged */
+    private boolean verifyConfiguration(BaseTalonConfiguration written, BaseTalonConfiguration actual) {
+        return MotorConfig.matches(written.slot0.kP, actual.slot0.kP)
+            && MotorConfig.matches(written.slot0.kI, actual.slot0.kI)
+            && MotorConfig.matches(written.slot0.kD, actual.slot0.kD)
+            && MotorConfig.matches(written.slot0.integralZone, actual.slot0.integralZone)
+            && MotorConfig.matches(written.slot0.allowableClosedloopError, actual.slot0.allowableClosedloopError)
+            && MotorConfig.matches(written.peakOutputForward, actual.peakOutputForward)
+            && MotorConfig.matches(written.peakOutputReverse, actual.peakOutputReverse)
+            && actual.forwardSoftLimitEnable == written.forwardSoftLimitEnable
+            && actual.reverseSoftLimitEnable == written.reverseSoftLimitEnable
+            && MotorConfig.matches(written.forwardSoftLimitThreshold, actual.forwardSoftLimitThreshold)
+            && MotorConfig.matches(written.reverseSoftLimitThreshold, actual.reverseSoftLimitThreshold)
+            && MotorConfig.matches(written.motionCruiseVelocity, actual.motionCruiseVelocity)
+            && MotorConfig.matches(written.motionAcceleration, actual.motionAcceleration)
+            && actual.clearPositionOnQuadIdx == written.clearPositionOnQuadIdx;
+    }
+
+    private static boolean verifySupplyCurrentLimit(
+        SupplyCurrentLimitConfiguration written,
+        SupplyCurrentLimitConfiguration actual
+    ) {
+        return actual.enable == written.enable
+            && MotorConfig.matches(written.currentLimit, actual.currentLimit)
+            && MotorConfig.matches(written.triggerThresholdCurrent, actual.triggerThresholdCurrent)
+            && MotorConfig.matches(written.triggerThresholdTime, actual.triggerThresholdTime);
+    }
 }
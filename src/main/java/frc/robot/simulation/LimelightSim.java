@@ -0,0 +1,251 @@
+package frc.robot.simulation;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.subsystems.vision.PoseHistory;
+
+/**
+ * Stands in for a Limelight running an april tag pipeline by publishing the same NetworkTables
+ * keys into the in-process instance, so {@link frc.robot.hardware.Limelight} reads it like a real
+ * camera. Targets are the tags in a field layout that are in front of the camera, inside its field
+ * of view, within range, and facing it. The primary target is the closest one. Pose arrays carry
+ * the tag count, average distance, and average area after the latency like newer firmware.
+ * <p> Each frame sees the robot where it was one total latency ago, plus Gaussian noise that grows
+ * with distance and shrinks with the number of tags in view. Noise is seeded from the camera name,
+ * so runs are repeatable.
+ * <p> Not thread safe, update from one thread at a time.
+ */
+public class LimelightSim {
+	/** Limelight 2+, units are radians */
+	private static final double HORIZONTAL_FOV = Math.toRadians(59.6);
+	private static final double VERTICAL_FOV = Math.toRadians(45.7);
+	/** Edge length of a 2023 tag, units are meters */
+	private static final double TAG_SIZE = 0.1524;
+	private static final int HISTORY_SIZE = 64;
+	private static final double[] EMPTY_ARRAY = new double[0];
+
+	private final AprilTagFieldLayout layout;
+	private final Transform3d robotToCamera;
+	private final Random random;
+	private final PoseHistory truePoses = new PoseHistory(HISTORY_SIZE);
+	private final double[] capturedPose = new double[3];
+
+	private final DoublePublisher tv;
+	private final DoublePublisher tx;
+	private final DoublePublisher ty;
+	private final DoublePublisher ta;
+	private final DoublePublisher ts;
+	private final DoublePublisher tid;
+	private final DoublePublisher tl;
+	private final DoublePublisher cl;
+	private final DoubleArrayPublisher botposeWpiBlue;
+	private final DoubleArrayPublisher botposeWpiRed;
+	private final DoubleArrayPublisher targetPoseRobotSpace;
+
+	private Supplier<Pose2d> poseSupplier;
+	/** Units are frames/sec */
+	private double frameRate = 30;
+	/** Units are ms */
+	private double pipelineLatency = 11;
+	private double captureLatency = 20;
+	/** Standard deviation of tx and ty, units are degrees */
+	private double angleNoise = 0.1;
+	/** Standard deviation of the pose translation per meter to the closest tag, units are meters */
+	private double translationNoisePerMeter = 0.02;
+	/** Standard deviation of the pose yaw, units are degrees */
+	private double rotationNoise = 1;
+	/** Units are meters */
+	private double maxDistance = 6;
+	private double lastFrameTimestamp = Double.NEGATIVE_INFINITY;
+	private long frameCount;
+
+	/**
+	 * @param limelightName the NetworkTables table to publish into
+	 * @param robotToCamera where the camera sits on the robot
+	 * @param layout tags the camera can see
+	 */
+	public LimelightSim(String limelightName, Transform3d robotToCamera, AprilTagFieldLayout layout) {
+		this.robotToCamera = robotToCamera;
+		this.layout = layout;
+		random = new Random(limelightName.hashCode());
+		NetworkTable table = NetworkTableInstance.getDefault().getTable(limelightName);
+		tv = table.getDoubleTopic("tv").publish();
+		tx = table.getDoubleTopic("tx").publish();
+		ty = table.getDoubleTopic("ty").publish();
+		ta = table.getDoubleTopic("ta").publish();
+		ts = table.getDoubleTopic("ts").publish();
+		tid = table.getDoubleTopic("tid").publish();
+		// Readers detect new frames by the latency's update time, so publish it even when unchanged
+		tl = table.getDoubleTopic("tl").publish(PubSubOption.keepDuplicates(true));
+		cl = table.getDoubleTopic("cl").publish();
+		botposeWpiBlue = table.getDoubleArrayTopic("botpose_wpiblue").publish();
+		botposeWpiRed = table.getDoubleArrayTopic("botpose_wpired").publish();
+		targetPoseRobotSpace = table.getDoubleArrayTopic("targetpose_robotspace").publish();
+		tv.set(0);
+	}
+
+	/** Where the simulated robot really is, null to stop seeing targets */
+	public LimelightSim setPoseSupplier(Supplier<Pose2d> poseSupplier) {
+		this.poseSupplier = poseSupplier;
+		truePoses.clear();
+		return this;
+	}
+
+	/** Units are frames/sec */
+	public LimelightSim setFrameRate(double frameRate) {
+		this.frameRate = frameRate;
+		return this;
+	}
+
+	/**
+	 * @param pipelineLatency time spent processing the image, units are ms
+	 * @param captureLatency time from exposure to the pipeline starting, units are ms
+	 */
+	public LimelightSim setLatency(double pipelineLatency, double captureLatency) {
+		this.pipelineLatency = pipelineLatency;
+		this.captureLatency = captureLatency;
+		return this;
+	}
+
+	/**
+	 * Standard deviations of the published measurements, zero for perfect data.
+	 * @param angleNoise tx and ty, units are degrees
+	 * @param translationNoisePerMeter pose x and y per meter to the closest tag, units are meters
+	 * @param rotationNoise pose yaw, units are degrees
+	 */
+	public LimelightSim setNoise(double angleNoise, double translationNoisePerMeter, double rotationNoise) {
+		this.angleNoise = angleNoise;
+		this.translationNoisePerMeter = translationNoisePerMeter;
+		this.rotationNoise = rotationNoise;
+		return this;
+	}
+
+	/** Tags farther than this are not detected, units are meters */
+	public LimelightSim setMaxDistance(double maxDistance) {
+		this.maxDistance = maxDistance;
+		return this;
+	}
+
+	public long getFrameCount() {
+		return frameCount;
+	}
+
+	/**
+	 * Records where the robot is now and publishes a frame if one is due. Call once per cycle,
+	 * before the camera is read.
+	 * @return whether a frame was published
+	 */
+	public boolean update() {
+		double now = Timer.getFPGATimestamp();
+		if (poseSupplier != null) {
+			Pose2d pose = poseSupplier.get();
+			truePoses.add(now, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+		}
+		if (now - lastFrameTimestamp < 1 / frameRate) return false;
+		lastFrameTimestamp = now;
+		frameCount++;
+
+		double totalLatency = pipelineLatency + captureLatency;
+		boolean hasPose = poseSupplier != null && truePoses.sample(now - totalLatency / 1000, capturedPose);
+		if (!hasPose || !publishTargets(totalLatency)) {
+			tv.set(0);
+			botposeWpiBlue.set(EMPTY_ARRAY);
+			botposeWpiRed.set(EMPTY_ARRAY);
+			targetPoseRobotSpace.set(EMPTY_ARRAY);
+		}
+		cl.set(captureLatency);
+		tl.set(pipelineLatency);
+		return true;
+	}
+
+	/** @return false if no tag is in view */
+	private boolean publishTargets(double totalLatency) {
+		Pose3d robotPose = new Pose3d(
+			new Pose2d(capturedPose[0], capturedPose[1], new Rotation2d(capturedPose[2]))
+		);
+		Pose3d cameraPose = robotPose.transformBy(robotToCamera);
+		int tagCount = 0;
+		double distanceSum = 0;
+		double areaSum = 0;
+		AprilTag primary = null;
+		Translation3d primaryInCamera = null;
+		for (AprilTag tag : layout.getTags()) {
+			Pose3d tagInCamera = tag.pose.relativeTo(cameraPose);
+			Translation3d translation = tagInCamera.getTranslation();
+			double distance = translation.getNorm();
+			if (translation.getX() <= 0 || distance > maxDistance) continue;
+			if (Math.abs(Math.atan2(translation.getY(), translation.getX())) > HORIZONTAL_FOV / 2) continue;
+			if (Math.abs(Math.atan2(translation.getZ(), translation.getX())) > VERTICAL_FOV / 2) continue;
+			// The tag's face points along its x axis, which has to point back toward the camera
+			Translation3d facing = new Translation3d(1, 0, 0).rotateBy(tagInCamera.getRotation());
+			double facingAway = facing.getX() * translation.getX()
+				+ facing.getY() * translation.getY()
+				+ facing.getZ() * translation.getZ();
+			if (facingAway >= 0) continue;
+
+			tagCount++;
+			distanceSum += distance;
+			areaSum += getArea(distance);
+			if (primaryInCamera == null || distance < primaryInCamera.getNorm()) {
+				primary = tag;
+				primaryInCamera = translation;
+			}
+		}
+		if (tagCount == 0) return false;
+
+		double distance = primaryInCamera.getNorm();
+		double horizontalDegrees = Math.toDegrees(Math.atan2(primaryInCamera.getY(), primaryInCamera.getX()));
+		double verticalDegrees = Math.toDegrees(Math.atan2(primaryInCamera.getZ(), primaryInCamera.getX()));
+		tv.set(1);
+		// The Limelight reports tx positive to the right
+		tx.set(-horizontalDegrees + random.nextGaussian() * angleNoise);
+		ty.set(verticalDegrees + random.nextGaussian() * angleNoise);
+		ta.set(getArea(distance));
+		ts.set(0);
+		tid.set(primary.ID);
+
+		double averageDistance = distanceSum / tagCount;
+		double averageArea = areaSum / tagCount;
+		double translationNoise = translationNoisePerMeter * averageDistance / Math.sqrt(tagCount);
+		double x = capturedPose[0] + random.nextGaussian() * translationNoise;
+		double y = capturedPose[1] + random.nextGaussian() * translationNoise;
+		double yawDegrees = Math.toDegrees(capturedPose[2]) + random.nextGaussian() * rotationNoise;
+		botposeWpiBlue.set(new double[] {
+			x, y, 0, 0, 0, yawDegrees, totalLatency, tagCount, 0, averageDistance, averageArea
+		});
+		botposeWpiRed.set(new double[] {
+			layout.getFieldLength() - x, layout.getFieldWidth() - y, 0, 0, 0,
+			Math.IEEEremainder(yawDegrees + 180, 360), totalLatency, tagCount, 0, averageDistance, averageArea
+		});
+
+		Pose3d tagInRobot = primary.pose.relativeTo(robotPose);
+		targetPoseRobotSpace.set(new double[] {
+			tagInRobot.getX(), tagInRobot.getY(), tagInRobot.getZ(),
+			Math.toDegrees(tagInRobot.getRotation().getX()),
+			Math.toDegrees(tagInRobot.getRotation().getY()),
+			Math.toDegrees(tagInRobot.getRotation().getZ())
+		});
+		return true;
+	}
+
+	/** Share of the image a tag covers at {@code distance}, units are percent */
+	private static double getArea(double distance) {
+		double area = 100 * TAG_SIZE * TAG_SIZE /
+			(distance * distance * 4 * Math.tan(HORIZONTAL_FOV / 2) * Math.tan(VERTICAL_FOV / 2));
+		return Math.min(area, 100);
+	}
+}
@@ -0,0 +1,73 @@
+package frc.robot.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Steps every simulated mechanism with the same fixed time step, in the order they were added, so
+ * results do not depend on how often or how late the robot loop runs. {@link #advance(double)}
+ * never waits on the wall clock, so batch runs go as fast as the CPU allows.
+ * <p> Main thread only.
+ */
+public class PhysicsSim {
+	private static PhysicsSim instance;
+
+	/** Units are seconds */
+	private static final double DEFAULT_STEP = 0.001;
+
+	private final List<Body> bodies = new ArrayList<>();
+	private double step = DEFAULT_STEP;
+	private double time;
+	/** Time requested but not yet covered by a whole step */
+	private double remainder;
+	private long stepCount;
+
+	/** Anything that moves in the simulation */
+	public static interface Body {
+		/** Advances the body by {@code dt} seconds */
+		public void step(double dt);
+	}
+
+	private PhysicsSim() {}
+
+	public static synchronized PhysicsSim getInstance() {
+		if (instance == null) instance = new PhysicsSim();
+		return instance;
+	}
+
+	/** Bodies that read other bodies' state should be added after them */
+	public void add(Body body) {
+		bodies.add(body);
+	}
+
+	/** Units are seconds */
+	public void setStep(double step) {
+		this.step = step;
+	}
+
+	/**
+	 * Runs as many fixed steps as fit in {@code seconds}, carrying the leftover into the next
+	 * call.
+	 */
+	public void advance(double seconds) {
+		remainder += seconds;
+		// Allow for rounding so 0.02 really is 20 steps of 0.001
+		while (remainder >= step - 1e-9) {
+			for (int i = 0; i < bodies.size(); i++) {
+				bodies.get(i).step(step);
+			}
+			remainder -= step;
+			time += step;
+			stepCount++;
+		}
+	}
+
+	/** Simulated time covered so far, units are seconds */
+	public double getTime() {
+		return time;
+	}
+
+	public long getStepCount() {
+		return stepCount;
+	}
+}
@@ -1,22 +1,93 @@
 package frc.robot.subsystems.messaging;
 
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.utilities.CycleScheduler.Priority;
+import frc.robot.utilities.DashboardPublisher;
 import frc.robot.utilities.Loggable;
+import frc.robot.utilities.LoggableRegistry;
+import frc.robot.utilities.LoggableRegistry.Mode;
+import frc.robot.utilities.MpscQueue;
+import frc.robot.utilities.ProfiledSubsystem;
+
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.littletonrobotics.junction.LogTable;
 
-public class MessagingSystem extends SubsystemBase implements Loggable {
+/**
+ * Keeps the most recent messages in a fixed size ring buffer. Each cycle only the messages added
+ * since the previous cycle are logged, so the cost does not grow over a match. Every batch gets a
+ * new batch number and the arrays are cleared on the next log, so a batch identical to the one
+ * before it still shows up in a log that only records changes.
+ * <p> {@link #addMessage(String)} is safe to call from any thread and never blocks. Messages are
+ * queued and moved into the ring buffer by the main loop when it logs.
+ */
+public class MessagingSystem extends ProfiledSubsystem implements Loggable {
 	private static MessagingSystem instance;
-	private StringBuilder messages;
-	private boolean isEnabled;
+
+	private static final int CAPACITY = 256;
+	private static final int QUEUE_CAPACITY = 128;
+	private static final int DASHBOARD_MESSAGE_COUNT = 10;
+	private static final String[] EMPTY_STRINGS = new String[0];
+	private static final double[] EMPTY_DOUBLES = new double[0];
+
+	private final MpscQueue<Message> incoming = new MpscQueue<>(QUEUE_CAPACITY);
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final Message[] messages = new Message[CAPACITY];
+	/** Total number of messages ever stored; the newest message is at index (count - 1) % CAPACITY */
+	private long count;
+	private long publishedCount;
+	private long droppedCount;
+	private long batchNumber;
+	private boolean hasLoggedBatch;
+	/** Indexed by batch size and created the first time a batch that size is logged */
+	private final String[][] messageBuffers = new String[CAPACITY + 1][];
+	private final double[][] timestampBuffers = new double[CAPACITY + 1][];
+	private final String[][] severityBuffers = new String[CAPACITY + 1][];
+	private String dashboardView;
+	private volatile boolean isEnabled;
+
+	public static enum Severity {
+		Info,
+		Warning,
+		Error
+	}
+
+	private static class Message {
+		final String text;
+		final double timestamp;
+		final Severity severity;
+
+		Message(String text, double timestamp, Severity severity) {
+			this.text = text;
+			this.timestamp = timestamp;
+			this.severity = severity;
+		}
+	}
 
 	private MessagingSystem() {
-		messages = new StringBuilder("MESSAGES APPEAR BELOW");
-        isEnabled = false;
+		dashboardView = "MESSAGES APPEAR BELOW";
+		isEnabled = false;
+		DashboardPublisher.getInstance().addString("Display", "Messages", () -> dashboardView);
+		LoggableRegistry.getInstance().register(this, Priority.Deferrable).setMode(Mode.OnChange);
 	}
 
 	public void addMessage(String message) {
-		if (isEnabled) {
-			messages.append("\n").append(message);
+		addMessage(message, Severity.Info);
+	}
+
+	public void addMessage(String message, Severity severity) {
+		if (!isEnabled) return;
+		if (!incoming.offer(new Message(message, Timer.getFPGATimestamp(), severity))) {
+			rejectedCount.incrementAndGet();
+		}
+	}
+
+	/** Moves queued messages into the ring buffer, main loop only */
+	private void drainIncoming() {
+		Message message;
+		while ((message = incoming.poll()) != null) {
+			messages[(int) (count % CAPACITY)] = message;
+			count++;
 		}
 	}
 
@@ -27,12 +98,79 @@ public class MessagingSystem extends SubsystemBase implements Loggable {
 	public static synchronized MessagingSystem getInstance() {
 		if (instance == null)
 			instance = new MessagingSystem();
-        return instance;
+		return instance;
+	}
+
+	/** Number of messages that were overwritten before they could be logged */
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/** Number of messages turned away because producers outpaced the main loop */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	@Override
+	public boolean hasNewData() {
+		return count != publishedCount || !incoming.isEmpty() || hasLoggedBatch;
 	}
 
 	@Override
 	public void logData(LogTable table) {
-		table.put("Message", messages.toString());
+		drainIncoming();
+		if (count - publishedCount > CAPACITY) {
+			droppedCount += count - publishedCount - CAPACITY;
+			publishedCount = count - CAPACITY;
+		}
+		int newCount = (int) (count - publishedCount);
+		table.put("Message Count", count);
+		table.put("Dropped Count", droppedCount);
+		table.put("Rejected Count", rejectedCount.get());
+		if (newCount == 0) {
+			table.put("Messages", EMPTY_STRINGS);
+			table.put("Timestamps", EMPTY_DOUBLES);
+			table.put("Severities", EMPTY_STRINGS);
+			hasLoggedBatch = false;
+			return;
+		}
+
+		if (messageBuffers[newCount] == null) {
+			messageBuffers[newCount] = new String[newCount];
+			timestampBuffers[newCount] = new double[newCount];
+			severityBuffers[newCount] = new String[newCount];
+		}
+		String[] newMessages = messageBuffers[newCount];
+		double[] newTimestamps = timestampBuffers[newCount];
+		String[] newSeverities = severityBuffers[newCount];
+		for (int i = 0; i < newCount; i++) {
+			Message message = messages[(int) ((publishedCount + i) % CAPACITY)];
+			newMessages[i] = message.text;
+			newTimestamps[i] = message.timestamp;
+			newSeverities[i] = message.severity.name();
+		}
+		table.put("Messages", newMessages);
+		table.put("Timestamps", newTimestamps);
+		table.put("Severities", newSeverities);
+		table.put("Batch Number", ++batchNumber);
+		hasLoggedBatch = true;
+		publishedCount = count;
+		updateDashboardView();
+	}
+
+	/** Rebuilds the rolling view of the newest messages, only called when something changed */
+	private void updateDashboardView() {
+		int shown = (int) Math.min(count, DASHBOARD_MESSAGE_COUNT);
+		StringBuilder view = new StringBuilder("MESSAGES APPEAR BELOW");
+		for (long i = count - shown; i < count; i++) {
+			Message message = messages[(int) (i % CAPACITY)];
+			view.append("\n");
+			if (message.severity != Severity.Info) {
+				view.append(message.severity.name().toUpperCase()).append(": ");
+			}
+			view.append(message.text);
+		}
+		dashboardView = view.toString();
 	}
 
 	@Override
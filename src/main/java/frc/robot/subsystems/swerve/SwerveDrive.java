@@ -0,0 +1,276 @@
+package frc.robot.subsystems.swerve;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.SPI;
+import frc.robot.CANConstants;
+import frc.robot.RobotMode;
+import frc.robot.hardware.CachingMotorController;
+import frc.robot.hardware.NavX;
+import frc.robot.subsystems.vision.Vision;
+import frc.robot.subsystems.vision.VisionPoseEstimator;
+import frc.robot.utilities.CycleScheduler.Priority;
+import frc.robot.utilities.Loggable;
+import frc.robot.utilities.LoggableRegistry;
+import frc.robot.utilities.ProfiledSubsystem;
+
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.Logger;
+
+public class SwerveDrive extends ProfiledSubsystem implements Loggable {
+	private static SwerveDrive instance;
+
+	/** Units are meters, from the center of the robot */
+	private static final double HALF_TRACK_WIDTH = 0.2667;
+	private static final double HALF_WHEEL_BASE = 0.2667;
+	/** Units are meters/sec */
+	private static final double MAX_SPEED = 4.5;
+	/** Units are radians/sec */
+	private static final double MAX_ANGULAR_SPEED = 2 * Math.PI;
+	private static final double SLOW_MODE_SCALE = 0.3;
+	private static final double LOOP_PERIOD = 0.02;
+	/** Configurable up to the sensor update rate, units are hertz */
+	private static final double ODOMETRY_FREQUENCY_HZ = 250;
+	/** Most samples integrated per cycle, leftovers wait for the next one */
+	private static final int ODOMETRY_BATCH_CAPACITY = 32;
+	/** About a second of odometry at the sample rate */
+	private static final int ESTIMATOR_HISTORY_SIZE = 256;
+	private static final double ODOMETRY_TRANSLATION_STD_DEV_METERS = 0.1;
+	private static final double ODOMETRY_ROTATION_STD_DEV_RADIANS = Math.toRadians(2);
+
+	private final SwerveModule[] modules;
+	private final SwerveKinematics kinematics;
+	private final NavX gyro;
+	private final SwerveOdometryThread odometryThread;
+	private final SwerveOdometryInputs odometryInputs;
+	private final SwerveOdometry odometry;
+	private final VisionPoseEstimator poseEstimator;
+	/** Null unless simulating */
+	private final SwerveDriveSim simulation;
+
+	private boolean isFieldRelative = true;
+	private boolean isSlowMode = false;
+
+	private final double[] discretized = new double[3];
+	private final double[] speeds;
+	private final double[] angles;
+	private final double[] odometryPose = new double[3];
+	private final double[] loggedOdometryPose = new double[3];
+	private final double[] estimate = new double[3];
+	/** From the newest logged odometry sample, so replay controls from what the robot measured */
+	private final double[] measuredAngles;
+	private final double[] measuredSpeeds;
+	private final double[] measuredDistances;
+	private double measuredYaw;
+	private double measuredYawRate;
+	private double measuredTimestamp = Double.NaN;
+
+	private SwerveDrive() {
+		modules = new SwerveModule[] {
+			new SwerveModule("Front Left", CANConstants.SWERVE_FRONT_LEFT_DRIVE_ID, CANConstants.SWERVE_FRONT_LEFT_ANGLE_ID),
+			new SwerveModule("Front Right", CANConstants.SWERVE_FRONT_RIGHT_DRIVE_ID, CANConstants.SWERVE_FRONT_RIGHT_ANGLE_ID),
+			new SwerveModule("Back Left", CANConstants.SWERVE_BACK_LEFT_DRIVE_ID, CANConstants.SWERVE_BACK_LEFT_ANGLE_ID),
+			new SwerveModule("Back Right", CANConstants.SWERVE_BACK_RIGHT_DRIVE_ID, CANConstants.SWERVE_BACK_RIGHT_ANGLE_ID)
+		};
+		kinematics = new SwerveKinematics(
+			new double[] {HALF_WHEEL_BASE, HALF_WHEEL_BASE, -HALF_WHEEL_BASE, -HALF_WHEEL_BASE},
+			new double[] {HALF_TRACK_WIDTH, -HALF_TRACK_WIDTH, HALF_TRACK_WIDTH, -HALF_TRACK_WIDTH}
+		);
+		speeds = new double[modules.length];
+		angles = new double[modules.length];
+		measuredAngles = new double[modules.length];
+		measuredSpeeds = new double[modules.length];
+		measuredDistances = new double[modules.length];
+
+		gyro = new NavX(SPI.Port.kMXP);
+		poseEstimator = new VisionPoseEstimator(
+			ESTIMATOR_HISTORY_SIZE,
+			ODOMETRY_TRANSLATION_STD_DEV_METERS,
+			ODOMETRY_ROTATION_STD_DEV_RADIANS
+		);
+		odometryInputs = new SwerveOdometryInputs(modules.length, ODOMETRY_BATCH_CAPACITY);
+		odometry = new SwerveOdometry(kinematics);
+		odometryThread = new SwerveOdometryThread(modules, gyro);
+		// In replay the samples come from the log
+		if (RobotMode.get() != RobotMode.Replay) {
+			odometryThread.start(ODOMETRY_FREQUENCY_HZ);
+		}
+		if (RobotMode.get() == RobotMode.Sim) {
+			simulation = new SwerveDriveSim(modules, kinematics);
+		} else {
+			simulation = null;
+		}
+		LoggableRegistry.getInstance().register(this, Priority.Critical);
+	}
+
+	public static synchronized SwerveDrive getInstance() {
+		if (instance == null) instance = new SwerveDrive();
+		return instance;
+	}
+
+	@Override
+	protected void profiledPeriodic() {
+		odometryThread.drain(odometryInputs);
+		Logger.getInstance().processInputs("Swerve/Odometry", odometryInputs);
+		updateMeasuredState();
+		for (int i = 0; i < odometryInputs.sampleCount; i++) {
+			odometry.update(odometryInputs, i, odometryPose);
+			poseEstimator.addOdometry(
+				odometryInputs.timestamps[i],
+				odometryPose[0],
+				odometryPose[1],
+				odometryPose[2]
+			);
+		}
+		Vision.getInstance().addVisionMeasurement(poseEstimator);
+	}
+
+	/**
+	 * Takes the heading and module angles from the newest sample, and module speeds from the wheel
+	 * distance covered since the previous cycle's newest sample.
+	 */
+	private void updateMeasuredState() {
+		int count = odometryInputs.sampleCount;
+		if (count == 0) return;
+		int last = count - 1;
+		int offset = last * modules.length;
+		double timestamp = odometryInputs.timestamps[last];
+		double dt = timestamp - measuredTimestamp;
+		for (int i = 0; i < modules.length; i++) {
+			double distance = odometryInputs.distances[offset + i];
+			// NaN on the first sample, which leaves the speeds at 0
+			if (dt > 0) measuredSpeeds[i] = (distance - measuredDistances[i]) / dt;
+			measuredDistances[i] = distance;
+			measuredAngles[i] = odometryInputs.angles[offset + i];
+		}
+		measuredYaw = odometryInputs.yaws[last];
+		measuredYawRate = odometryInputs.yawRates[last];
+		measuredTimestamp = timestamp;
+	}
+
+	/** Publishes the simulated heading once per cycle, after the physics caught up to now */
+	@Override
+	public void simulationPeriodic() {
+		if (simulation != null) {
+			gyro.setSimulatedYaw(simulation.getUnwrappedYaw());
+		}
+	}
+
+	/**
+	 * Drives at the given speeds, scaled down in slow mode. Field relative speeds are measured from
+	 * the gyro zero, using the heading from the newest odometry sample.
+	 * @param vx forward, units are meters/sec
+	 * @param vy left, units are meters/sec
+	 * @param omega counterclockwise, units are radians/sec
+	 */
+	public void drive(double vx, double vy, double omega) {
+		if (isSlowMode) {
+			vx *= SLOW_MODE_SCALE;
+			vy *= SLOW_MODE_SCALE;
+			omega *= SLOW_MODE_SCALE;
+		}
+		if (isFieldRelative) {
+			double heading = measuredYaw - gyro.getGyroZero().getRadians();
+			double cos = Math.cos(heading);
+			double sin = Math.sin(heading);
+			double robotVx = vx * cos + vy * sin;
+			vy = -vx * sin + vy * cos;
+			vx = robotVx;
+		}
+		SwerveKinematics.discretize(vx, vy, omega, LOOP_PERIOD, discretized);
+		kinematics.toModuleStates(discretized[0], discretized[1], discretized[2], speeds, angles);
+		kinematics.desaturate(speeds, MAX_SPEED);
+		for (int i = 0; i < modules.length; i++) {
+			modules[i].setState(speeds[i], MAX_SPEED, angles[i], measuredAngles[i]);
+		}
+	}
+
+	/** Speeds last commanded to each module, units are meters/sec */
+	public double[] getTargetSpeeds() {
+		return speeds.clone();
+	}
+
+	/** Drives from joystick values, interval: [-1, 1] */
+	public void drivePercent(double forward, double left, double counterclockwise) {
+		drive(forward * MAX_SPEED, left * MAX_SPEED, counterclockwise * MAX_ANGULAR_SPEED);
+	}
+
+	public void stop() {
+		for (SwerveModule module : modules) {
+			module.stop();
+		}
+	}
+
+	public void setFieldRelative(boolean isFieldRelative) {
+		this.isFieldRelative = isFieldRelative;
+	}
+
+	public boolean isFieldRelative() {
+		return isFieldRelative;
+	}
+
+	public void switchDriveMode() {
+		isFieldRelative = !isFieldRelative;
+	}
+
+	public void setSlowMode(boolean isSlowMode) {
+		this.isSlowMode = isSlowMode;
+	}
+
+	/** Makes the direction the robot is facing forward for field relative driving */
+	public void resetGyro() {
+		gyro.setGyroZero(new Rotation2d(measuredYaw));
+	}
+
+	public NavX getGyro() {
+		return gyro;
+	}
+
+	/** From the newest odometry sample, units are radians/sec, counterclockwise positive */
+	public double getYawRate() {
+		return measuredYawRate;
+	}
+
+	/** Null unless simulating */
+	public SwerveDriveSim getSimulation() {
+		return simulation;
+	}
+
+	/** Odometry fused with vision */
+	public Pose2d getPose() {
+		return poseEstimator.getEstimatedPose();
+	}
+
+	/** Resets odometry and the estimate together, so the estimate starts exactly at {@code pose} */
+	public void resetPose(Pose2d pose) {
+		odometry.resetPose(pose.getX(), pose.getY(), pose.getRotation().getRadians());
+		poseEstimator.resetPose(
+			odometry.getTimestamp(),
+			pose.getX(),
+			pose.getY(),
+			pose.getRotation().getRadians()
+		);
+	}
+
+	@Override
+	public void logData(LogTable table) {
+		table.put("Module Angles", measuredAngles);
+		table.put("Module Speeds", measuredSpeeds);
+		table.put("Target Module Angles", angles);
+		table.put("Target Module Speeds", speeds);
+		odometry.getPose(loggedOdometryPose);
+		table.put("Odometry Pose", loggedOdometryPose);
+		poseEstimator.getEstimate(estimate);
+		table.put("Estimated Pose", estimate);
+		table.put("Odometry Batch Size", odometryInputs.sampleCount);
+		table.put("Field Relative", isFieldRelative);
+		table.put("Slow Mode", isSlowMode);
+		table.put("CAN Frames Sent", CachingMotorController.getTotalSentCount());
+		table.put("CAN Frames Skipped", CachingMotorController.getTotalSkippedCount());
+	}
+
+	@Override
+	public String getTableName() {
+		return "Swerve";
+	}
+}
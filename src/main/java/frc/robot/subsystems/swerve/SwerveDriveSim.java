@@ -0,0 +1,65 @@
+package frc.robot.subsystems.swerve;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.simulation.PhysicsSim;
+
+/**
+ * Moves a simulated robot by how far its simulated wheels rolled on every physics step. Wheels
+ * never slip, so the result is the ground truth the gyro, cameras, and odometry are compared to.
+ * <p> Added to {@link PhysicsSim} after the module motors so it sees their updated state.
+ */
+public class SwerveDriveSim implements PhysicsSim.Body {
+	private final SwerveModule[] modules;
+	private final SwerveKinematics kinematics;
+	private final double[] lastDistances;
+	private final double[] distanceDeltas;
+	private final double[] angles;
+	private final double[] chassisDelta = new double[3];
+	/** Field x, y, theta */
+	private final double[] pose = new double[3];
+	private double unwrappedYaw;
+
+	public SwerveDriveSim(SwerveModule[] modules, SwerveKinematics kinematics) {
+		this.modules = modules;
+		this.kinematics = kinematics;
+		lastDistances = new double[modules.length];
+		distanceDeltas = new double[modules.length];
+		angles = new double[modules.length];
+		for (int i = 0; i < modules.length; i++) {
+			lastDistances[i] = modules[i].getSimulatedDriveDistance();
+		}
+		PhysicsSim.getInstance().add(this);
+	}
+
+	@Override
+	public void step(double dt) {
+		for (int i = 0; i < modules.length; i++) {
+			double distance = modules[i].getSimulatedDriveDistance();
+			distanceDeltas[i] = distance - lastDistances[i];
+			lastDistances[i] = distance;
+			angles[i] = modules[i].getSimulatedModuleAngle();
+		}
+		kinematics.toChassisDelta(distanceDeltas, angles, chassisDelta);
+		SwerveKinematics.integrate(pose, chassisDelta[0], chassisDelta[1], chassisDelta[2]);
+		unwrappedYaw += chassisDelta[2];
+	}
+
+	/** The robot's true pose */
+	public Pose2d getPose() {
+		return new Pose2d(pose[0], pose[1], new Rotation2d(pose[2]));
+	}
+
+	/** The robot's true heading, unwrapped, units are radians */
+	public double getUnwrappedYaw() {
+		return unwrappedYaw;
+	}
+
+	/** Units are meters and radians */
+	public void resetPose(double x, double y, double theta) {
+		pose[0] = x;
+		pose[1] = y;
+		pose[2] = theta;
+		unwrappedYaw = theta;
+	}
+}
@@ -0,0 +1,145 @@
+package frc.robot.subsystems.swerve;
+
+import org.ejml.simple.SimpleMatrix;
+
+import frc.robot.utilities.ExtendedMath;
+
+/**
+ * Swerve kinematics on primitive arrays. All matrices are built once in the constructor, so
+ * converting between chassis speeds and module states never allocates.
+ * <p> Module order is fixed by the arrays passed in. Units are meters, seconds, and radians;
+ * +x is forward, +y is left, and counterclockwise is positive.
+ */
+public class SwerveKinematics {
+	private final int moduleCount;
+	private final double[] moduleX;
+	private final double[] moduleY;
+	/** Row major 3 x 2n pseudo inverse of the inverse kinematics matrix */
+	private final double[] forwardKinematics;
+
+	public SwerveKinematics(double[] moduleX, double[] moduleY) {
+		moduleCount = moduleX.length;
+		this.moduleX = moduleX.clone();
+		this.moduleY = moduleY.clone();
+
+		SimpleMatrix inverseKinematics = new SimpleMatrix(moduleCount * 2, 3);
+		for (int i = 0; i < moduleCount; i++) {
+			inverseKinematics.setRow(i * 2, 0, 1, 0, -moduleY[i]);
+			inverseKinematics.setRow(i * 2 + 1, 0, 0, 1, moduleX[i]);
+		}
+		SimpleMatrix pseudoInverse = inverseKinematics.pseudoInverse();
+		forwardKinematics = new double[3 * moduleCount * 2];
+		for (int row = 0; row < 3; row++) {
+			for (int column = 0; column < moduleCount * 2; column++) {
+				forwardKinematics[row * moduleCount * 2 + column] = pseudoInverse.get(row, column);
+			}
+		}
+	}
+
+	public int getModuleCount() {
+		return moduleCount;
+	}
+
+	/**
+	 * @param speeds filled with each module's speed, units are meters/sec
+	 * @param angles filled with each module's angle, units are radians; a module that is not
+	 *     moving keeps the angle already in the array
+	 */
+	public void toModuleStates(double vx, double vy, double omega, double[] speeds, double[] angles) {
+		for (int i = 0; i < moduleCount; i++) {
+			double moduleVx = vx - omega * moduleY[i];
+			double moduleVy = vy + omega * moduleX[i];
+			speeds[i] = ExtendedMath.norm(moduleVx, moduleVy);
+			if (speeds[i] > 1e-6) {
+				angles[i] = Math.atan2(moduleVy, moduleVx);
+			}
+		}
+	}
+
+	/** Scales every speed down by the same factor so none is above {@code maxSpeed} */
+	public void desaturate(double[] speeds, double maxSpeed) {
+		double fastest = 0;
+		for (int i = 0; i < moduleCount; i++) {
+			fastest = Math.max(fastest, Math.abs(speeds[i]));
+		}
+		if (fastest <= maxSpeed) return;
+		double scale = maxSpeed / fastest;
+		for (int i = 0; i < moduleCount; i++) {
+			speeds[i] *= scale;
+		}
+	}
+
+	/**
+	 * Least squares solution for how the chassis moved given how far each wheel rolled.
+	 * @param distances distance each wheel travelled, units are meters
+	 * @param angles each module's angle during the move, units are radians
+	 * @param out filled with the robot relative dx, dy, dtheta
+	 */
+	public void toChassisDelta(double[] distances, double[] angles, double[] out) {
+		int columns = moduleCount * 2;
+		for (int row = 0; row < 3; row++) {
+			double sum = 0;
+			int offset = row * columns;
+			for (int i = 0; i < moduleCount; i++) {
+				sum += forwardKinematics[offset + i * 2] * distances[i] * Math.cos(angles[i]);
+				sum += forwardKinematics[offset + i * 2 + 1] * distances[i] * Math.sin(angles[i]);
+			}
+			out[row] = sum;
+		}
+	}
+
+	/**
+	 * Second order discretization. Driving at a constant twist for a whole loop while rotating
+	 * makes the robot drift sideways; this finds the twist whose arc ends where the requested
+	 * speeds would put the robot after {@code dt}.
+	 * @param out filled with the corrected vx, vy, omega
+	 */
+	public static void discretize(double vx, double vy, double omega, double dt, double[] out) {
+		double dx = vx * dt;
+		double dy = vy * dt;
+		double dtheta = omega * dt;
+
+		// Pose2d.log of (dx, dy, dtheta)
+		double halfDtheta = dtheta / 2;
+		double cosMinusOne = Math.cos(dtheta) - 1;
+		double halfThetaByTanOfHalfDtheta;
+		if (Math.abs(cosMinusOne) < 1e-9) {
+			halfThetaByTanOfHalfDtheta = 1 - dtheta * dtheta / 12;
+		} else {
+			halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+		}
+		double scale = Math.hypot(halfThetaByTanOfHalfDtheta, halfDtheta);
+		double cos = halfThetaByTanOfHalfDtheta / scale;
+		double sin = -halfDtheta / scale;
+
+		out[0] = (dx * cos - dy * sin) * scale / dt;
+		out[1] = (dx * sin + dy * cos) * scale / dt;
+		out[2] = omega;
+	}
+
+	/**
+	 * Moves {@code pose} along a robot relative twist, following the arc rather than a straight
+	 * line. Same as Pose2d.exp.
+	 * @param pose field x, y, theta, updated in place
+	 */
+	public static void integrate(double[] pose, double dx, double dy, double dtheta) {
+		double sinTheta = Math.sin(dtheta);
+		double cosTheta = Math.cos(dtheta);
+		double s;
+		double c;
+		if (Math.abs(dtheta) < 1e-9) {
+			s = 1 - dtheta * dtheta / 6;
+			c = 0.5 * dtheta;
+		} else {
+			s = sinTheta / dtheta;
+			c = (1 - cosTheta) / dtheta;
+		}
+		double localX = dx * s - dy * c;
+		double localY = dx * c + dy * s;
+		double headingCos = Math.cos(pose[2]);
+		double headingSin = Math.sin(pose[2]);
+		pose[0] += localX * headingCos - localY * headingSin;
+		pose[1] += localX * headingSin + localY * headingCos;
+		pose[2] = ExtendedMath.wrapAngle(pose[2] + dtheta);
+	}
+}
@@ -0,0 +1,146 @@
+package frc.robot.subsystems.swerve;
+
+import com.pathplanner.lib.auto.PIDConstants;
+import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.robot.RobotMode;
+import frc.robot.hardware.CachingMotorController;
+import frc.robot.hardware.EncodedMotorController;
+import frc.robot.hardware.MotorConfig;
+import frc.robot.hardware.MotorConfigurator;
+import frc.robot.hardware.SimMotorController;
+import frc.robot.hardware.SparkMaxMotorController;
+import frc.robot.utilities.ExtendedMath;
+
+/**
+ * One swerve module: a drive motor and an angle motor. Setpoints are written from the main loop
+ * and sensors are refreshed by the odometry thread, so reads here are the cached values from its
+ * last sample.
+ */
+public class SwerveModule {
+	/** MK4 L2 */
+	private static final double DRIVE_GEAR_RATIO = 6.75;
+	private static final double ANGLE_GEAR_RATIO = 12.8;
+	/** Units are meters */
+	private static final double WHEEL_RADIUS = 0.0508;
+	private static final int DRIVE_CURRENT_LIMIT = 40;
+	private static final int ANGLE_CURRENT_LIMIT = 20;
+	private static final PIDConstants ANGLE_PID = new PIDConstants(0.2, 0, 0);
+	/** Sensor frames arrive at least as fast as the odometry thread samples them */
+	private static final int SENSOR_UPDATE_PERIOD_MS = 5;
+	/** Share of the robot's inertia each wheel pushes, units are kg m^2 */
+	private static final double SIM_DRIVE_MOMENT_OF_INERTIA = 0.025;
+	private static final double SIM_ANGLE_MOMENT_OF_INERTIA = 0.004;
+
+	private final String name;
+	private final EncodedMotorController driveMotor;
+	private final EncodedMotorController angleMotor;
+	/** Null unless simulating */
+	private final SimMotorController driveSim;
+	private final SimMotorController angleSim;
+
+	public SwerveModule(String name, int driveID, int angleID) {
+		this.name = name;
+		EncodedMotorController drive;
+		EncodedMotorController angle;
+		switch (RobotMode.get()) {
+			case Real:
+				driveSim = null;
+				angleSim = null;
+				drive = new SparkMaxMotorController(driveID, MotorType.kBrushless);
+				angle = new SparkMaxMotorController(angleID, MotorType.kBrushless);
+				break;
+			case Sim:
+				driveSim = SimMotorController.positional(DCMotor.getNEO(1), DRIVE_GEAR_RATIO, SIM_DRIVE_MOMENT_OF_INERTIA);
+				angleSim = SimMotorController.positional(DCMotor.getNEO(1), ANGLE_GEAR_RATIO, SIM_ANGLE_MOMENT_OF_INERTIA);
+				drive = driveSim;
+				angle = angleSim;
+				break;
+			default:
+				// Sensor values come from the logged odometry samples
+				driveSim = null;
+				angleSim = null;
+				drive = SimMotorController.unsimulated();
+				angle = SimMotorController.unsimulated();
+				break;
+		}
+		driveMotor = new CachingMotorController(drive).setSensorUpdatePeriod(SENSOR_UPDATE_PERIOD_MS);
+		angleMotor = new CachingMotorController(angle).setSensorUpdatePeriod(SENSOR_UPDATE_PERIOD_MS);
+
+		MotorConfigurator configurator = MotorConfigurator.getInstance();
+		configurator.submit(name + " Drive", driveMotor, new MotorConfig()
+			.setCurrentLimit(DRIVE_CURRENT_LIMIT)
+			.setBrakeOnIdle(true)
+		);
+		configurator.submit(name + " Angle", angleMotor, new MotorConfig()
+			.setCurrentLimit(ANGLE_CURRENT_LIMIT)
+			.setPID(ANGLE_PID)
+			.setBrakeOnIdle(true)
+		);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/** Wheel distance straight from the physics model, units are meters */
+	double getSimulatedDriveDistance() {
+		return driveSim.getSimulatedAngle() / DRIVE_GEAR_RATIO * WHEEL_RADIUS;
+	}
+
+	/** Module angle straight from the physics model, units are radians */
+	double getSimulatedModuleAngle() {
+		return angleSim.getSimulatedAngle() / ANGLE_GEAR_RATIO;
+	}
+
+	/** Odometry thread only */
+	void refreshSensors() {
+		driveMotor.refreshSensors();
+		angleMotor.refreshSensors();
+	}
+
+	/** Total distance the wheel has rolled, units are meters */
+	public double getDriveDistance() {
+		return driveMotor.getAngle() / DRIVE_GEAR_RATIO * WHEEL_RADIUS;
+	}
+
+	/** Units are meters/sec */
+	public double getDriveVelocity() {
+		return driveMotor.getAngularVelocity() / DRIVE_GEAR_RATIO * WHEEL_RADIUS;
+	}
+
+	/** Unwrapped, units are radians */
+	public double getModuleAngle() {
+		return angleMotor.getAngle() / ANGLE_GEAR_RATIO;
+	}
+
+	/**
+	 * Optimizes and applies a module state. The wheel turns the short way to {@code angle}, driving
+	 * backward if that is closer, and the speed is scaled by the cosine of the remaining angle error
+	 * so the wheel does not push sideways while it turns.
+	 * @param speed units are meters/sec
+	 * @param maxSpeed speed that maps to full output, units are meters/sec
+	 * @param angle units are radians
+	 * @param currentAngle the measured, unwrapped module angle from the logged odometry samples,
+	 * so replay steers from the same angle the robot did, units are radians
+	 */
+	public void setState(double speed, double maxSpeed, double angle, double currentAngle) {
+		double delta = ExtendedMath.getShortestRadianToTarget(currentAngle, angle);
+		if (Math.abs(delta) > Math.PI / 2) {
+			delta -= Math.copySign(Math.PI, delta);
+			speed = -speed;
+		}
+		speed *= Math.cos(delta);
+
+		driveMotor.setOutput(speed / maxSpeed);
+		if (speed != 0) {
+			angleMotor.setAngle((currentAngle + delta) * ANGLE_GEAR_RATIO);
+		}
+	}
+
+	public void stop() {
+		driveMotor.setOutput(0);
+		angleMotor.setOutput(0);
+	}
+}
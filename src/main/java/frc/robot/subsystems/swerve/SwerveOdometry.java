@@ -0,0 +1,98 @@
+package frc.robot.subsystems.swerve;
+
+import frc.robot.utilities.ExtendedMath;
+
+/**
+ * Integrates batches of {@link SwerveOdometryInputs} into a field pose. Runs on the main thread
+ * from logged inputs only, so replay reproduces the same pose.
+ * <p> Translation comes from the wheels and rotation from the gyro, which does not slip.
+ */
+public class SwerveOdometry {
+	private final SwerveKinematics kinematics;
+	private final int moduleCount;
+
+	private final double[] lastDistances;
+	private final double[] distanceDeltas;
+	private final double[] angles;
+	private final double[] chassisDelta = new double[3];
+	/** Field x, y, theta */
+	private final double[] pose = new double[3];
+	private double lastYaw;
+	private double headingOffset;
+	private double timestamp;
+	private boolean hasSample;
+	private boolean resetPending;
+	private double resetTheta;
+
+	public SwerveOdometry(SwerveKinematics kinematics) {
+		this.kinematics = kinematics;
+		moduleCount = kinematics.getModuleCount();
+		lastDistances = new double[moduleCount];
+		distanceDeltas = new double[moduleCount];
+		angles = new double[moduleCount];
+	}
+
+	/**
+	 * Integrates one sample from {@code inputs}.
+	 * @param poseOut filled with the field x, y, theta after the sample
+	 */
+	public void update(SwerveOdometryInputs inputs, int sample, double[] poseOut) {
+		int offset = sample * moduleCount;
+		double yaw = inputs.yaws[sample];
+		if (resetPending) {
+			headingOffset = resetTheta - yaw;
+			resetPending = false;
+		}
+
+		if (hasSample) {
+			for (int i = 0; i < moduleCount; i++) {
+				distanceDeltas[i] = inputs.distances[offset + i] - lastDistances[i];
+				angles[i] = inputs.angles[offset + i];
+			}
+			kinematics.toChassisDelta(distanceDeltas, angles, chassisDelta);
+			SwerveKinematics.integrate(
+				pose,
+				chassisDelta[0],
+				chassisDelta[1],
+				ExtendedMath.wrapAngle(yaw - lastYaw)
+			);
+		}
+		pose[2] = ExtendedMath.wrapAngle(yaw + headingOffset);
+		System.arraycopy(inputs.distances, offset, lastDistances, 0, moduleCount);
+		lastYaw = yaw;
+		timestamp = inputs.timestamps[sample];
+		hasSample = true;
+
+		poseOut[0] = pose[0];
+		poseOut[1] = pose[1];
+		poseOut[2] = pose[2];
+	}
+
+	/** @param out filled with field x, y, theta */
+	public void getPose(double[] out) {
+		out[0] = pose[0];
+		out[1] = pose[1];
+		out[2] = pose[2];
+	}
+
+	/** FPGA time of the last integrated sample, units are seconds */
+	public double getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Units are meters and radians. The heading is matched to the gyro on the next sample, so a
+	 * reset never reads the gyro directly.
+	 */
+	public void resetPose(double x, double y, double theta) {
+		pose[0] = x;
+		pose[1] = y;
+		pose[2] = ExtendedMath.wrapAngle(theta);
+		resetTheta = theta;
+		if (hasSample) {
+			headingOffset = theta - lastYaw;
+		} else {
+			resetPending = true;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package frc.robot.subsystems.swerve;
+
+import java.util.Arrays;
+
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+/**
+ * The odometry samples taken since the last cycle. Logged as inputs so that replay integrates
+ * exactly the samples the robot did.
+ * <p> Arrays are sized for {@link #capacity} samples and reused; only the first
+ * {@link #sampleCount} are valid. Per module values are flattened sample major.
+ */
+public class SwerveOdometryInputs implements LoggableInputs {
+	public final int moduleCount;
+	public int capacity;
+	public int sampleCount;
+	/** Units are seconds */
+	public double[] timestamps;
+	/** Units are radians, counterclockwise positive */
+	public double[] yaws;
+	/** Units are radians/sec, counterclockwise positive */
+	public double[] yawRates;
+	/** Units are meters */
+	public double[] distances;
+	/** Units are radians */
+	public double[] angles;
+	/** Samples the thread could not queue, since boot */
+	public long droppedCount;
+
+	public SwerveOdometryInputs(int moduleCount, int capacity) {
+		this.moduleCount = moduleCount;
+		resize(capacity);
+	}
+
+	private void resize(int newCapacity) {
+		capacity = newCapacity;
+		timestamps = new double[capacity];
+		yaws = new double[capacity];
+		yawRates = new double[capacity];
+		distances = new double[capacity * moduleCount];
+		angles = new double[capacity * moduleCount];
+	}
+
+	@Override
+	public void toLog(LogTable table) {
+		// AdvantageKit keeps a reference to logged arrays, so hand it copies
+		table.put("Timestamps", Arrays.copyOf(timestamps, sampleCount));
+		table.put("Yaws", Arrays.copyOf(yaws, sampleCount));
+		table.put("Yaw Rates", Arrays.copyOf(yawRates, sampleCount));
+		table.put("Distances", Arrays.copyOf(distances, sampleCount * moduleCount));
+		table.put("Angles", Arrays.copyOf(angles, sampleCount * moduleCount));
+		table.put("Dropped Count", droppedCount);
+	}
+
+	@Override
+	public void fromLog(LogTable table) {
+		double[] loggedTimestamps = table.getDoubleArray("Timestamps", new double[0]);
+		if (loggedTimestamps.length > capacity) resize(loggedTimestamps.length);
+		sampleCount = loggedTimestamps.length;
+		System.arraycopy(loggedTimestamps, 0, timestamps, 0, sampleCount);
+		copyFromLog(table.getDoubleArray("Yaws", new double[0]), yaws, sampleCount);
+		copyFromLog(table.getDoubleArray("Yaw Rates", new double[0]), yawRates, sampleCount);
+		copyFromLog(table.getDoubleArray("Distances", new double[0]), distances, sampleCount * moduleCount);
+		copyFromLog(table.getDoubleArray("Angles", new double[0]), angles, sampleCount * moduleCount);
+		droppedCount = table.getInteger("Dropped Count", 0);
+	}
+
+	private static void copyFromLog(double[] logged, double[] destination, int length) {
+		Arrays.fill(destination, 0, length, 0);
+		System.arraycopy(logged, 0, destination, 0, Math.min(logged.length, length));
+	}
+}
@@ -0,0 +1,81 @@
+package frc.robot.subsystems.swerve;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.hardware.NavX;
+import frc.robot.utilities.SpscRecordQueue;
+
+/**
+ * Samples the module encoders and gyro on a {@link Notifier} faster than the main loop, so
+ * odometry does not depend on main loop timing. Samples are handed to the main loop through a
+ * lock free queue and integrated there in a batch each cycle by {@link SwerveOdometry}.
+ * <p> Each record is the FPGA timestamp, the gyro yaw and yaw rate at that time, every module's
+ * drive distance, then every module's angle. The yaw comes from the NavX's timestamped history, so
+ * it lines up with the encoders instead of lagging by the NavX's transport delay.
+ */
+public class SwerveOdometryThread {
+	/** Enough for several main loop overruns at the highest sample rate */
+	private static final int QUEUE_CAPACITY = 128;
+
+	private final SwerveModule[] modules;
+	private final NavX gyro;
+	private final Notifier notifier;
+	private final SpscRecordQueue queue;
+	/** Only touched by the sampling thread */
+	private final double[] record;
+	/** Only touched by the main thread */
+	private final double[] drained;
+	private volatile long droppedCount;
+
+	public SwerveOdometryThread(SwerveModule[] modules, NavX gyro) {
+		this.modules = modules;
+		this.gyro = gyro;
+		queue = new SpscRecordQueue(QUEUE_CAPACITY, 3 + modules.length * 2);
+		record = new double[queue.recordSize()];
+		drained = new double[queue.recordSize()];
+		notifier = new Notifier(this::sample);
+		notifier.setName("SwerveOdometry");
+	}
+
+	public void start(double frequencyHz) {
+		notifier.startPeriodic(1.0 / frequencyHz);
+	}
+
+	public void stop() {
+		notifier.stop();
+	}
+
+	private void sample() {
+		int moduleCount = modules.length;
+		for (int i = 0; i < moduleCount; i++) {
+			modules[i].refreshSensors();
+			record[3 + i] = modules[i].getDriveDistance();
+			record[3 + moduleCount + i] = modules[i].getModuleAngle();
+		}
+		record[0] = Timer.getFPGATimestamp();
+		record[1] = gyro.yawAt(record[0]);
+		record[2] = gyro.getYawRate();
+		if (!queue.offer(record)) {
+			droppedCount++;
+		}
+	}
+
+	/**
+	 * Main thread only. Moves every queued sample into {@code inputs}, oldest first. Samples past
+	 * the inputs' capacity stay queued for the next cycle.
+	 */
+	public void drain(SwerveOdometryInputs inputs) {
+		int moduleCount = modules.length;
+		int count = 0;
+		while (count < inputs.capacity && queue.poll(drained)) {
+			inputs.timestamps[count] = drained[0];
+			inputs.yaws[count] = drained[1];
+			inputs.yawRates[count] = drained[2];
+			System.arraycopy(drained, 3, inputs.distances, count * moduleCount, moduleCount);
+			System.arraycopy(drained, 3 + moduleCount, inputs.angles, count * moduleCount, moduleCount);
+			count++;
+		}
+		inputs.sampleCount = count;
+		inputs.droppedCount = droppedCount;
+	}
+}
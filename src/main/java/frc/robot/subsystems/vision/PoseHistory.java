@@ -0,0 +1,125 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * A fixed capacity ring buffer of timestamped robot poses, stored in primitive arrays so that
+ * recording and querying never allocate. Once full, the oldest pose is overwritten.
+ */
+public class PoseHistory {
+	private final double[] timestamps;
+	private final double[] xs;
+	private final double[] ys;
+	private final double[] thetas;
+	private int head;
+	private int size;
+
+	public PoseHistory(int capacity) {
+		timestamps = new double[capacity];
+		xs = new double[capacity];
+		ys = new double[capacity];
+		thetas = new double[capacity];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Records a pose. Samples must arrive in time order; a sample older than the newest one is
+	 * dropped and a sample with the same timestamp replaces it.
+	 * @param timestamp units are seconds
+	 * @param x units are meters
+	 * @param y units are meters
+	 * @param theta units are radians
+	 */
+	public void add(double timestamp, double x, double y, double theta) {
+		if (size > 0) {
+			double latest = timestamps[index(size - 1)];
+			if (timestamp < latest) return;
+			if (timestamp == latest) {
+				set(index(size - 1), timestamp, x, y, theta);
+				return;
+			}
+		}
+		set(head, timestamp, x, y, theta);
+		head = (head + 1) % timestamps.length;
+		if (size < timestamps.length) size++;
+	}
+
+	/** Units are seconds, NaN when empty */
+	public double getOldestTimestamp() {
+		return size == 0 ? Double.NaN : timestamps[index(0)];
+	}
+
+	/** Units are seconds, NaN when empty */
+	public double getLatestTimestamp() {
+		return size == 0 ? Double.NaN : timestamps[index(size - 1)];
+	}
+
+	/**
+	 * Fills {@code out} with the newest x, y, theta.
+	 * @return false if the history is empty
+	 */
+	public boolean getLatest(double[] out) {
+		if (size == 0) return false;
+		copy(index(size - 1), out);
+		return true;
+	}
+
+	/**
+	 * Fills {@code out} with the x, y, theta at {@code timestamp}, linearly interpolated between
+	 * the two surrounding samples. Times after the newest sample return the newest sample.
+	 * @return false if the history is empty or {@code timestamp} is older than the oldest sample
+	 */
+	public boolean sample(double timestamp, double[] out) {
+		if (size == 0 || timestamp < timestamps[index(0)]) return false;
+		if (timestamp >= timestamps[index(size - 1)]) {
+			copy(index(size - 1), out);
+			return true;
+		}
+
+		// Find the first sample strictly newer than timestamp
+		int low = 0;
+		int high = size - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (timestamps[index(mid)] <= timestamp) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		int after = index(low);
+		int before = index(low - 1);
+		double t = (timestamp - timestamps[before]) / (timestamps[after] - timestamps[before]);
+		out[0] = xs[before] + (xs[after] - xs[before]) * t;
+		out[1] = ys[before] + (ys[after] - ys[before]) * t;
+		out[2] = MathUtil.angleModulus(
+			thetas[before] + MathUtil.angleModulus(thetas[after] - thetas[before]) * t
+		);
+		return true;
+	}
+
+	private int index(int offsetFromOldest) {
+		return (head - size + offsetFromOldest + timestamps.length) % timestamps.length;
+	}
+
+	private void set(int index, double timestamp, double x, double y, double theta) {
+		timestamps[index] = timestamp;
+		xs[index] = x;
+		ys[index] = y;
+		thetas[index] = theta;
+	}
+
+	private void copy(int index, double[] out) {
+		out[0] = xs[index];
+		out[1] = ys[index];
+		out[2] = thetas[index];
+	}
+}
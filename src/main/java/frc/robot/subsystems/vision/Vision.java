@@ -1,55 +1,227 @@
 package frc.robot.subsystems.vision;
 
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
-import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
-import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.hardware.Limelight;
+import frc.robot.RobotMode;
+import frc.robot.hardware.LimelightFrame;
+import frc.robot.subsystems.vision.VisionCamera.Role;
+import frc.robot.utilities.CycleScheduler.Priority;
+import frc.robot.utilities.DashboardPublisher;
 import frc.robot.utilities.Loggable;
+import frc.robot.utilities.LoggableRegistry;
+import frc.robot.utilities.ProfiledSubsystem;
 
 import org.littletonrobotics.junction.LogTable;
 import org.littletonrobotics.junction.Logger;
 
-public class Vision extends SubsystemBase implements Loggable {
+/**
+ * Every camera on the robot. All cameras are read and logged at the start of each cycle, and each
+ * april tag pose is fed to the pose estimator at its own capture time.
+ * <p> To add a camera, add it to the list in {@link #getInstance()}.
+ */
+public class Vision extends ProfiledSubsystem implements Loggable {
 	private static Vision instance;
-	private Limelight aprilTagLimelight;
-	private Limelight gamePieceLimelight;
+	private static AprilTagFieldLayout fieldLayout;
+	private final VisionCamera[] cameras;
+	private final VisionCamera[] aprilTagCameras;
+	private final VisionCamera[] gamePieceCameras;
+	/** Filled in turn, {@link #snapshot} points at the one filled last */
+	private final VisionSnapshot[] snapshots;
+	private volatile VisionSnapshot snapshot;
+	private long cycle;
+	private int fusedCameraCount;
 
-	private double GAMEPIECE_LIMELIGHT_HEIGHT_METERS = 0.232;
 	private double GAMEPIECE_HALF_HEIGHT_METERS = 0.16;
-	private Rotation2d GAMEPIECE_LIMELIGHT_ANGLE = Rotation2d.fromDegrees(-12);
-
-	private Vision() {
-		aprilTagLimelight = new Limelight("limelight-hehehe");
-		gamePieceLimelight = new Limelight("limelight-haha");
-		Shuffleboard.getTab("Display").addDouble(
-			"Horizontal Offset", 
-			() -> getGamePieceHorizontalOffset(new Rotation2d()).getDegrees()
+	/** Standard deviations of a pose from one tag right in front of the camera */
+	private double APRILTAG_TRANSLATION_STD_DEV_METERS = 0.1;
+	private double APRILTAG_ROTATION_STD_DEV_RADIANS = Math.toRadians(10);
+	/** How much a fully ambiguous pose multiplies the standard deviations */
+	private double AMBIGUITY_STD_DEV_SCALE = 4;
+	/** Single tag poses more ambiguous than this are dropped */
+	private double MAX_AMBIGUITY = 0.2;
+	/** Units are degrees */
+	private double DASHBOARD_ANGLE_DEADBAND = 0.1;
+	/** Units are meters */
+	private double DASHBOARD_DISTANCE_DEADBAND = 0.01;
+	/** Forward of center and facing forward */
+	private static final Transform3d APRILTAG_ROBOT_TO_CAMERA = new Transform3d(
+		new Translation3d(0.3, 0, 0.5),
+		new Rotation3d()
+	);
+	/** Tilted 12 degrees down */
+	private static final Transform3d GAMEPIECE_ROBOT_TO_CAMERA = new Transform3d(
+		new Translation3d(0, 0, 0.232),
+		new Rotation3d(0, Math.toRadians(12), 0)
+	);
+	private static final Transform3d NO_TRANSFORM = new Transform3d();
+	private static final LimelightFrame NO_FRAME = new LimelightFrame(
+		0, 0, 0, false, 0, 0, 0, 0, -1, new double[] {}, new double[] {}, new double[] {}
+	);
+
+	private Vision(VisionCamera... cameras) {
+		this.cameras = cameras.clone();
+		aprilTagCameras = withRole(cameras, Role.AprilTag);
+		gamePieceCameras = withRole(cameras, Role.GamePiece);
+		snapshots = new VisionSnapshot[] {
+			new VisionSnapshot(cameras.length),
+			new VisionSnapshot(cameras.length)
+		};
+		captureSnapshot();
+		LoggableRegistry.getInstance().register(this, Priority.Critical);
+		DashboardPublisher dashboard = DashboardPublisher.getInstance();
+		dashboard.addDouble(
+			"Display",
+			"Horizontal Offset",
+			() -> snapshot.gamePiece.horizontalOffset,
+			DASHBOARD_ANGLE_DEADBAND
 		);
-		Shuffleboard.getTab("Display").addDouble(
-			"Forward Distance", 
-			() -> getGamePieceTranslation(new Translation2d()).getX()
+		dashboard.addDouble(
+			"Display",
+			"Forward Distance",
+			() -> getGamePieceForwardDistance(0),
+			DASHBOARD_DISTANCE_DEADBAND
 		);
-		Shuffleboard.getTab("Display").addDouble(
+		dashboard.addDouble(
+			"Display",
 			"Sideways Distance",
-			() -> getGamePieceTranslation(new Translation2d()).getY()
+			() -> getGamePieceSidewaysDistance(0),
+			DASHBOARD_DISTANCE_DEADBAND
 		);
 	}
 
 	public static synchronized Vision getInstance() {
-		if (instance == null) instance = new Vision();
+		if (instance == null) {
+			instance = new Vision(
+				createCamera("AprilTag Camera", "limelight-hehehe", Role.AprilTag, APRILTAG_ROBOT_TO_CAMERA),
+				createCamera("Game Piece Camera", "limelight-haha", Role.GamePiece, GAMEPIECE_ROBOT_TO_CAMERA)
+			);
+		}
 		return instance;
 	}
 
+	/**
+	 * Creates the instance with specific cameras, such as real Limelights in simulation.
+	 * @throws IllegalStateException if the instance already exists
+	 */
+	public static synchronized Vision createInstance(VisionCamera... cameras) {
+		if (instance != null) throw new IllegalStateException("Vision has already been created");
+		instance = new Vision(cameras);
+		return instance;
+	}
+
+	/**
+	 * A Limelight read the way the current mode needs. Simulated april tag cameras see the 2023
+	 * field and game pieces are not simulated.
+	 */
+	private static VisionCamera createCamera(
+		String name,
+		String limelightName,
+		Role role,
+		Transform3d robotToCamera
+	) {
+		VisionIO io;
+		switch (RobotMode.get()) {
+			case Real:
+				io = new VisionIOLimelight(limelightName);
+				break;
+			case Sim:
+				io = role == Role.AprilTag
+					? new VisionIOLimelightSim(limelightName, robotToCamera, getFieldLayout())
+					: new VisionIO() {};
+				break;
+			default:
+				// Inputs come from the log
+				io = new VisionIO() {};
+				break;
+		}
+		return new VisionCamera(name, role, robotToCamera, io);
+	}
+
+	private static AprilTagFieldLayout getFieldLayout() {
+		if (fieldLayout == null) fieldLayout = AprilTagFields.k2023ChargedUp.loadAprilTagLayoutField();
+		return fieldLayout;
+	}
+
+	private static VisionCamera[] withRole(VisionCamera[] cameras, Role role) {
+		return Arrays.stream(cameras)
+			.filter(camera -> camera.getRole() == role)
+			.toArray(VisionCamera[]::new);
+	}
+
+	@Override
+	protected void profiledPeriodic() {
+		captureSnapshot();
+	}
+
+	private void captureSnapshot() {
+		// Reading a Limelight is a handful of NetworkTables reads, far cheaper than handing it to
+		// another thread, so cameras are read one after another. Every choice below depends only on
+		// the logged inputs, so replay makes the same choices on the same cycles.
+		for (VisionCamera camera : cameras) {
+			camera.update();
+			camera.process();
+		}
+		VisionCamera best = null;
+		for (VisionCamera camera : aprilTagCameras) {
+			if (best == null || isBetterAprilTag(camera, best)) best = camera;
+		}
+		VisionCamera bestGamePiece = null;
+		for (VisionCamera camera : gamePieceCameras) {
+			if (bestGamePiece == null || isBetterGamePiece(camera.getFrame(), bestGamePiece.getFrame())) {
+				bestGamePiece = camera;
+			}
+		}
+		VisionSnapshot next = snapshot == snapshots[0] ? snapshots[1] : snapshots[0];
+		for (int i = 0; i < cameras.length; i++) {
+			next.frames[i] = cameras[i].getFrame();
+		}
+		next.cycle = cycle++;
+		next.timestampSeconds = Timer.getFPGATimestamp();
+		next.aprilTag = best != null ? best.getFrame() : NO_FRAME;
+		next.gamePiece = bestGamePiece != null ? bestGamePiece.getFrame() : NO_FRAME;
+		next.gamePieceRobotToCamera = bestGamePiece != null ? bestGamePiece.getRobotToCamera() : NO_TRANSFORM;
+		snapshot = next;
+	}
+
+	private static boolean isBetterAprilTag(VisionCamera camera, VisionCamera best) {
+		if (camera.getTagCount() != best.getTagCount()) return camera.getTagCount() > best.getTagCount();
+		return camera.getTagCount() > 0 && camera.getTagDistance() < best.getTagDistance();
+	}
+
+	private static boolean isBetterGamePiece(LimelightFrame frame, LimelightFrame best) {
+		if (frame.hasTarget != best.hasTarget) return frame.hasTarget;
+		return frame.targetArea > best.targetArea;
+	}
+
 	@Override
 	public void logData(LogTable table) {
-		table.put("Tag ID", getTagId(0));
-        table.put("Sees tag", seesTag());
-        table.put("Sees gamepiece", seesGamePiece());
-		Logger.getInstance().recordOutput("Vision Odometry", getRobotPose(new Pose2d()));
+		VisionSnapshot current = snapshot;
+		LimelightFrame aprilTag = current.aprilTag;
+		table.put("Cycle", current.cycle);
+		table.put("Tag Frame ID", aprilTag.frameId);
+		table.put("Tag Capture Timestamp", aprilTag.getRobotPoseCaptureTimestamp(DriverStation.getAlliance()));
+		table.put("Gamepiece Frame ID", current.gamePiece.frameId);
+		table.put("Tag ID", aprilTag.hasTarget ? aprilTag.tagId : 0);
+		table.put("Sees tag", aprilTag.hasTarget);
+		table.put("Sees gamepiece", current.gamePiece.hasTarget);
+		table.put("Fused Camera Count", fusedCameraCount);
+		Logger.getInstance().recordOutput(
+			"Vision Odometry",
+			aprilTag.getRobotPoseToAlliance(DriverStation.getAlliance()).orElse(new Pose2d())
+		);
 	}
 
 	@Override
@@ -57,42 +229,70 @@ public class Vision extends SubsystemBase implements Loggable {
 		return "Vision";
 	}
 
-	public Limelight getAprilTageLimelight() {
-		return aprilTagLimelight;
+	/** Where simulated april tag cameras think the robot really is */
+	public void setSimulatedPoseSupplier(Supplier<Pose2d> poseSupplier) {
+		for (VisionCamera camera : cameras) {
+			if (camera.getIO() instanceof VisionIOLimelightSim) {
+				((VisionIOLimelightSim) camera.getIO()).getSim().setPoseSupplier(poseSupplier);
+			}
+		}
 	}
 
-	public Limelight getGamePieceLimelight() {
-		return gamePieceLimelight;
+	/** In the order they were registered */
+	public VisionCamera[] getCameras() {
+		return cameras.clone();
+	}
+
+	/** The camera data captured at the start of this cycle, do not keep it past the next cycle */
+	public VisionSnapshot getSnapshot() {
+		return snapshot;
 	}
 
 	public boolean seesTag() {
-		return aprilTagLimelight.hasValidTargets();
+		return snapshot.aprilTag.hasTarget;
 	}
 
 	public boolean seesGamePiece() {
-		return gamePieceLimelight.hasValidTargets();
+		return snapshot.gamePiece.hasTarget;
 	}
 
 	public Translation2d getGamePieceTranslation(Translation2d defaultTranslation) {
-		if (!seesGamePiece()) return defaultTranslation;
-		double forwardDistance = 
-			(GAMEPIECE_LIMELIGHT_HEIGHT_METERS - GAMEPIECE_HALF_HEIGHT_METERS) / 
-			Math.tan(
-				GAMEPIECE_LIMELIGHT_ANGLE.plus(
-					getGamePieceVerticalOffset(new Rotation2d())
-				).getRadians()
-			);
+		VisionSnapshot current = snapshot;
+		LimelightFrame gamePiece = current.gamePiece;
+		if (!gamePiece.hasTarget) return defaultTranslation;
+		double forwardDistance = getForwardDistance(gamePiece, current.gamePieceRobotToCamera);
 		return new Translation2d(
 			forwardDistance,
-			forwardDistance * Math.tan(
-				getGamePieceVerticalOffset(new Rotation2d())
-				.getRadians()
-			)
+			forwardDistance * Math.tan(Math.toRadians(gamePiece.verticalOffset))
 		);
 	}
 
+	/** Allocation free, units are meters */
+	public double getGamePieceForwardDistance(double defaultDistance) {
+		VisionSnapshot current = snapshot;
+		LimelightFrame gamePiece = current.gamePiece;
+		if (!gamePiece.hasTarget) return defaultDistance;
+		return getForwardDistance(gamePiece, current.gamePieceRobotToCamera);
+	}
+
+	/** Allocation free, units are meters */
+	public double getGamePieceSidewaysDistance(double defaultDistance) {
+		VisionSnapshot current = snapshot;
+		LimelightFrame gamePiece = current.gamePiece;
+		if (!gamePiece.hasTarget) return defaultDistance;
+		return getForwardDistance(gamePiece, current.gamePieceRobotToCamera) *
+			Math.tan(Math.toRadians(gamePiece.verticalOffset));
+	}
+
+	/** Pitch is positive down, so the camera's elevation is its negated pitch */
+	private double getForwardDistance(LimelightFrame gamePiece, Transform3d robotToCamera) {
+		return (robotToCamera.getZ() - GAMEPIECE_HALF_HEIGHT_METERS) /
+			Math.tan(-robotToCamera.getRotation().getY() + Math.toRadians(gamePiece.verticalOffset));
+	}
+
 	public int getTagId(int defaultID) {
-		return aprilTagLimelight.getTargetTagId().orElse(defaultID);
+		LimelightFrame aprilTag = snapshot.aprilTag;
+		return aprilTag.hasTarget ? aprilTag.tagId : defaultID;
 	}
 
 	public Pose2d getRobotPose(Pose2d defaultPose) {
@@ -100,38 +300,73 @@ public class Vision extends SubsystemBase implements Loggable {
 	}
 
 	public Pose2d getRobotPose(Pose2d defaultPose, Alliance poseOrigin) {
-		return aprilTagLimelight
+		return snapshot.aprilTag
 			.getRobotPoseToAlliance(poseOrigin)
 			.orElse(defaultPose);
 	}
 
+	/**
+	 * Feeds each april tag camera's new pose into {@code estimator} at the time that camera
+	 * captured it, so the estimator compensates each for its own latency and weighs them by their
+	 * variances. Standard deviations grow with the square of the distance to the tags and with
+	 * ambiguity, and shrink with the number of tags. Ambiguous single tag poses are dropped. Each
+	 * camera frame is only applied once.
+	 * @return whether any new measurement was applied
+	 */
+	public boolean addVisionMeasurement(VisionPoseEstimator estimator) {
+		Alliance alliance = DriverStation.getAlliance();
+		int count = 0;
+		for (VisionCamera camera : aprilTagCameras) {
+			LimelightFrame frame = camera.getFrame();
+			if (!frame.hasTarget || !camera.markFused()) continue;
+			double[] raw = frame.getRobotPoseArray(alliance);
+			if (raw.length < Limelight.POSE_ARRAY_LENGTH) continue;
+			long tagCount = Math.max(1, camera.getTagCount());
+			double ambiguity = camera.getAmbiguity();
+			if (tagCount == 1 && ambiguity > MAX_AMBIGUITY) continue;
+
+			double distance = camera.getTagDistance();
+			double scale = (1 + distance * distance) / tagCount * (1 + ambiguity * AMBIGUITY_STD_DEV_SCALE);
+			boolean applied = estimator.addVisionMeasurement(
+				frame.getRobotPoseCaptureTimestamp(alliance),
+				raw[0],
+				raw[1],
+				Math.toRadians(raw[5]),
+				APRILTAG_TRANSLATION_STD_DEV_METERS * scale,
+				APRILTAG_ROTATION_STD_DEV_RADIANS * scale
+			);
+			if (applied) count++;
+		}
+		fusedCameraCount = count;
+		return count > 0;
+	}
+
 	public Pose2d getRelativeTargetPose(Pose2d defaultPose) {
-		return aprilTagLimelight
+		return snapshot.aprilTag
 			.getTargetPoseToRobot()
 			.orElse(defaultPose);
 	}
 
 	public Rotation2d getGamePieceHorizontalOffset(Rotation2d defaultRotation) {
-		return gamePieceLimelight
-			.getHorizontalOffsetFromCrosshair()
-			.orElse(defaultRotation);
+		LimelightFrame gamePiece = snapshot.gamePiece;
+		if (!gamePiece.hasTarget) return defaultRotation;
+		return Rotation2d.fromDegrees(gamePiece.horizontalOffset);
 	}
 
 	public Rotation2d getGamePieceVerticalOffset(Rotation2d defaultRotation) {
-		return gamePieceLimelight
-			.getVerticalOffsetFromCrosshair()
-			.orElse(defaultRotation);
+		LimelightFrame gamePiece = snapshot.gamePiece;
+		if (!gamePiece.hasTarget) return defaultRotation;
+		return Rotation2d.fromDegrees(gamePiece.verticalOffset);
 	}
 
 	public double getGamePieceTakenArea(double defaultArea) {
-		return gamePieceLimelight
-			.getTargetArea()
-			.orElse(defaultArea);
+		LimelightFrame gamePiece = snapshot.gamePiece;
+		return gamePiece.hasTarget ? gamePiece.targetArea : defaultArea;
 	}
 
 	public Rotation2d getGamePieceSkew(Rotation2d defaultSkew) {
-		return gamePieceLimelight
-			.getSkew()
-			.orElse(defaultSkew);
+		LimelightFrame gamePiece = snapshot.gamePiece;
+		if (!gamePiece.hasTarget) return defaultSkew;
+		return Rotation2d.fromDegrees(gamePiece.skew);
 	}
 }
@@ -0,0 +1,120 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.robot.hardware.LimelightFrame;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * One camera known to {@link Vision}: what it looks for, where it sits on the robot, and where its
+ * data comes from. Its inputs are logged under {@code Vision/<name>}.
+ */
+public class VisionCamera {
+	public static enum Role {
+		/** Localizes the robot from april tags */
+		AprilTag,
+		/** Finds game pieces */
+		GamePiece
+	}
+
+	private final String name;
+	private final String logKey;
+	private final Role role;
+	private final Transform3d robotToCamera;
+	private final VisionIO io;
+	private final VisionIOInputsAutoLogged inputs = new VisionIOInputsAutoLogged();
+	/** Filled in turn, so the frame from the previous {@link #process()} stays intact */
+	private final LimelightFrame[] frames = { new LimelightFrame(), new LimelightFrame() };
+	private LimelightFrame frame = frames[0];
+	private long lastFusedFrameId;
+
+	public VisionCamera(String name, Role role, Transform3d robotToCamera, VisionIO io) {
+		this.name = name;
+		this.role = role;
+		this.robotToCamera = robotToCamera;
+		this.io = io;
+		logKey = "Vision/" + name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Role getRole() {
+		return role;
+	}
+
+	public Transform3d getRobotToCamera() {
+		return robotToCamera;
+	}
+
+	public VisionIO getIO() {
+		return io;
+	}
+
+	/**
+	 * Reads the camera. A camera that throws is reported and keeps its previous inputs, so one bad
+	 * camera does not stop the others.
+	 */
+	void update() {
+		try {
+			io.updateInputs(inputs);
+		} catch (RuntimeException exception) {
+			DriverStation.reportError(name + " threw while capturing: " + exception, false);
+		}
+	}
+
+	/** Logs the inputs read by {@link #update()} and converts them to a frame, main thread only */
+	void process() {
+		Logger.getInstance().processInputs(logKey, inputs);
+		frame = fill(frame == frames[0] ? frames[1] : frames[0], inputs);
+	}
+
+	/** The frame from the last {@link #process()}, valid until the {@link #process()} after next */
+	public LimelightFrame getFrame() {
+		return frame;
+	}
+
+	/** Tags behind the current pose, 0 without a target */
+	public long getTagCount() {
+		return frame.hasTarget ? inputs.tagCount : 0;
+	}
+
+	/** Average distance to the tags behind the current pose, units are meters */
+	public double getTagDistance() {
+		return inputs.tagDistance;
+	}
+
+	/** 0 to 1 */
+	public double getAmbiguity() {
+		return inputs.ambiguity;
+	}
+
+	/**
+	 * Marks the current frame as fused into the pose estimate.
+	 * @return false if it already was
+	 */
+	boolean markFused() {
+		if (frame.frameId == lastFusedFrameId) return false;
+		lastFusedFrameId = frame.frameId;
+		return true;
+	}
+
+	private static LimelightFrame fill(LimelightFrame frame, VisionIO.VisionIOInputs inputs) {
+		return frame.set(
+			inputs.frameId,
+			inputs.timestampSeconds,
+			inputs.latencySeconds,
+			inputs.hasTarget,
+			inputs.horizontalOffset,
+			inputs.verticalOffset,
+			inputs.targetArea,
+			inputs.skew,
+			(int) inputs.tagId,
+			inputs.botposeWpiBlue,
+			inputs.botposeWpiRed,
+			inputs.targetPoseRobotSpace
+		);
+	}
+}
@@ -0,0 +1,47 @@
+package frc.robot.subsystems.vision;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * Where a camera's data comes from. {@link Vision} only sees the inputs, which are logged every
+ * time they are updated, so replay reproduces exactly what the cameras reported.
+ */
+public interface VisionIO {
+	@AutoLog
+	public static class VisionIOInputs {
+		/** Number of distinct camera frames seen, including the current one */
+		public long frameId = 0;
+		/** FPGA time in seconds at which the frame was received */
+		public double timestampSeconds = 0;
+		/** Pipeline plus capture latency in seconds */
+		public double latencySeconds = 0;
+		public boolean hasTarget = false;
+		/** Units are degrees, counterclockwise positive */
+		public double horizontalOffset = 0;
+		/** Units are degrees */
+		public double verticalOffset = 0;
+		/** Units are percent of the image */
+		public double targetArea = 0;
+		/** Units are degrees */
+		public double skew = 0;
+		/** -1 without a target */
+		public long tagId = -1;
+		/** Tags behind the pose, 0 without a target */
+		public long tagCount = 0;
+		/** Average distance from the camera to the tags behind the pose, units are meters */
+		public double tagDistance = 0;
+		/** 0 to 1, how likely a single tag pose is the wrong one of its two solutions */
+		public double ambiguity = 0;
+		/** x, y, z, roll, pitch, yaw, total latency in ms; empty if there is no pose */
+		public double[] botposeWpiBlue = new double[] {};
+		/** x, y, z, roll, pitch, yaw, total latency in ms; empty if there is no pose */
+		public double[] botposeWpiRed = new double[] {};
+		/** x, y, z, roll, pitch, yaw; empty if there is no pose */
+		public double[] targetPoseRobotSpace = new double[] {};
+	}
+
+	/** Reads the camera once, call once per cycle */
+	public default void updateInputs(VisionIOInputs inputs) {}
+
+	public default void setPipeline(int index) {}
+}
@@ -0,0 +1,65 @@
+package frc.robot.subsystems.vision;
+
+import frc.robot.hardware.Limelight;
+import frc.robot.hardware.LimelightFrame;
+
+/**
+ * A Limelight on the robot, read over NetworkTables. Firmware that appends tag statistics to the
+ * pose array reports how many tags it used and how far away they were; otherwise the pose is
+ * treated as coming from the primary tag alone. Limelights do not publish pose ambiguity, so it is
+ * always 0.
+ */
+public class VisionIOLimelight implements VisionIO {
+	/** Index of the tag count in pose arrays that carry tag statistics */
+	private static final int TAG_COUNT_INDEX = 7;
+	/** Index of the average tag distance in pose arrays that carry tag statistics */
+	private static final int TAG_DISTANCE_INDEX = 9;
+
+	private final Limelight limelight;
+
+	public VisionIOLimelight(String limelightName) {
+		limelight = new Limelight(limelightName);
+	}
+
+	public Limelight getLimelight() {
+		return limelight;
+	}
+
+	@Override
+	public void updateInputs(VisionIOInputs inputs) {
+		LimelightFrame frame = limelight.capture();
+		inputs.frameId = frame.frameId;
+		inputs.timestampSeconds = frame.timestampSeconds;
+		inputs.latencySeconds = frame.latencySeconds;
+		inputs.hasTarget = frame.hasTarget;
+		inputs.horizontalOffset = frame.horizontalOffset;
+		inputs.verticalOffset = frame.verticalOffset;
+		inputs.targetArea = frame.targetArea;
+		inputs.skew = frame.skew;
+		inputs.tagId = frame.tagId;
+		inputs.botposeWpiBlue = frame.botposeWpiBlue;
+		inputs.botposeWpiRed = frame.botposeWpiRed;
+		inputs.targetPoseRobotSpace = frame.targetPoseRobotSpace;
+
+		double[] pose = frame.botposeWpiBlue;
+		double[] target = frame.targetPoseRobotSpace;
+		if (!frame.hasTarget) {
+			inputs.tagCount = 0;
+			inputs.tagDistance = 0;
+		} else if (pose.length > TAG_DISTANCE_INDEX) {
+			inputs.tagCount = (long) pose[TAG_COUNT_INDEX];
+			inputs.tagDistance = pose[TAG_DISTANCE_INDEX];
+		} else {
+			inputs.tagCount = 1;
+			inputs.tagDistance = target.length >= 3
+				? Math.sqrt(target[0] * target[0] + target[1] * target[1] + target[2] * target[2])
+				: 0;
+		}
+		inputs.ambiguity = 0;
+	}
+
+	@Override
+	public void setPipeline(int index) {
+		limelight.setPipeline(index);
+	}
+}
@@ -0,0 +1,29 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Transform3d;
+import frc.robot.simulation.LimelightSim;
+
+/**
+ * A Limelight read over NetworkTables exactly like on the robot, with a {@link LimelightSim}
+ * publishing in place of the camera. The simulated camera publishes right before it is read, so
+ * frames are never a cycle late.
+ */
+public class VisionIOLimelightSim extends VisionIOLimelight {
+	private final LimelightSim sim;
+
+	public VisionIOLimelightSim(String limelightName, Transform3d robotToCamera, AprilTagFieldLayout layout) {
+		super(limelightName);
+		sim = new LimelightSim(limelightName, robotToCamera, layout);
+	}
+
+	public LimelightSim getSim() {
+		return sim;
+	}
+
+	@Override
+	public void updateInputs(VisionIOInputs inputs) {
+		sim.update();
+		super.updateInputs(inputs);
+	}
+}
@@ -0,0 +1,126 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Fuses late vision poses with odometry.
+ * <p> Raw odometry is recorded into a {@link PoseHistory}. The estimate is a field correction
+ * applied on top of odometry, so rewinding to a vision capture time is a lookup in the history,
+ * and replaying forward is simply re-applying the updated correction to the newest odometry.
+ * All math is done on primitives so the estimator never allocates once constructed.
+ */
+public class VisionPoseEstimator {
+	private final PoseHistory odometryHistory;
+	private final double odometryTranslationVariance;
+	private final double odometryRotationVariance;
+
+	// The estimate is correction composed with odometry
+	private double correctionX;
+	private double correctionY;
+	private double correctionTheta;
+
+	private final double[] odometryScratch = new double[3];
+	private final double[] estimateScratch = new double[3];
+
+	/**
+	 * @param historySize number of odometry samples to keep, should cover the worst vision latency
+	 * @param odometryTranslationStdDev units are meters
+	 * @param odometryRotationStdDev units are radians
+	 */
+	public VisionPoseEstimator(
+		int historySize,
+		double odometryTranslationStdDev,
+		double odometryRotationStdDev
+	) {
+		odometryHistory = new PoseHistory(historySize);
+		odometryTranslationVariance = odometryTranslationStdDev * odometryTranslationStdDev;
+		odometryRotationVariance = odometryRotationStdDev * odometryRotationStdDev;
+	}
+
+	/** Units are seconds, meters, and radians */
+	public void addOdometry(double timestamp, double x, double y, double theta) {
+		odometryHistory.add(timestamp, x, y, theta);
+	}
+
+	/**
+	 * Fills {@code out} with the current x, y, theta estimate.
+	 * @return false if no odometry has been recorded
+	 */
+	public boolean getEstimate(double[] out) {
+		if (!odometryHistory.getLatest(odometryScratch)) return false;
+		applyCorrection(odometryScratch, out);
+		return true;
+	}
+
+	public Pose2d getEstimatedPose() {
+		if (!getEstimate(estimateScratch)) return new Pose2d();
+		return new Pose2d(estimateScratch[0], estimateScratch[1], new Rotation2d(estimateScratch[2]));
+	}
+
+	/**
+	 * Forgets the odometry history and makes the estimate exactly the given pose, for when odometry
+	 * has just been reset to the same pose. Vision captured before {@code timestamp} is ignored.
+	 * @param timestamp time of the newest odometry sample, units are seconds
+	 */
+	public void resetPose(double timestamp, double x, double y, double theta) {
+		odometryHistory.clear();
+		odometryHistory.add(timestamp, x, y, MathUtil.angleModulus(theta));
+		correctionX = 0;
+		correctionY = 0;
+		correctionTheta = 0;
+	}
+
+	/**
+	 * Rewinds to {@code captureTimestamp}, blends the vision pose into the estimate at that time
+	 * weighted by the relative variances, then carries the result forward through the odometry
+	 * recorded since.
+	 * @param captureTimestamp FPGA time the image was taken, units are seconds
+	 * @param translationStdDev vision translation standard deviation, units are meters
+	 * @param rotationStdDev vision rotation standard deviation, units are radians
+	 * @return false if the measurement is older than the odometry history
+	 */
+	public boolean addVisionMeasurement(
+		double captureTimestamp,
+		double x,
+		double y,
+		double theta,
+		double translationStdDev,
+		double rotationStdDev
+	) {
+		if (!odometryHistory.sample(captureTimestamp, odometryScratch)) return false;
+		applyCorrection(odometryScratch, estimateScratch);
+
+		double translationGain = odometryTranslationVariance /
+			(odometryTranslationVariance + translationStdDev * translationStdDev);
+		double rotationGain = odometryRotationVariance /
+			(odometryRotationVariance + rotationStdDev * rotationStdDev);
+
+		double fusedX = estimateScratch[0] + (x - estimateScratch[0]) * translationGain;
+		double fusedY = estimateScratch[1] + (y - estimateScratch[1]) * translationGain;
+		double fusedTheta = estimateScratch[2] +
+			MathUtil.angleModulus(theta - estimateScratch[2]) * rotationGain;
+
+		setCorrection(fusedX, fusedY, fusedTheta, odometryScratch);
+		return true;
+	}
+
+	/** out = correction composed with odometry */
+	private void applyCorrection(double[] odometry, double[] out) {
+		double cos = Math.cos(correctionTheta);
+		double sin = Math.sin(correctionTheta);
+		out[0] = correctionX + cos * odometry[0] - sin * odometry[1];
+		out[1] = correctionY + sin * odometry[0] + cos * odometry[1];
+		out[2] = MathUtil.angleModulus(correctionTheta + odometry[2]);
+	}
+
+	/** Solves for the correction that maps {@code odometry} onto the given pose */
+	private void setCorrection(double x, double y, double theta, double[] odometry) {
+		correctionTheta = MathUtil.angleModulus(theta - odometry[2]);
+		double cos = Math.cos(correctionTheta);
+		double sin = Math.sin(correctionTheta);
+		correctionX = x - (cos * odometry[0] - sin * odometry[1]);
+		correctionY = y - (sin * odometry[0] + cos * odometry[1]);
+	}
+}
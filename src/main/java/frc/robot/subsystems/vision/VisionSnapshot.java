@@ -0,0 +1,29 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Transform3d;
+import frc.robot.hardware.LimelightFrame;
+
+/**
+ * Everything {@link Vision} knows about its cameras for a single robot loop cycle.
+ * Captured once in {@link Vision#periodic()} so every reader in that cycle sees the same frames.
+ * <p> Vision fills two snapshots in turn, so a snapshot is only valid until the capture after the
+ * one that replaced it. Only Vision writes the fields.
+ */
+public class VisionSnapshot {
+	/** Incremented once per capture */
+	public long cycle;
+	/** FPGA time in seconds at which the snapshot was taken */
+	public double timestampSeconds;
+	/** From the april tag camera that sees the most tags, the closest ones on a tie */
+	public LimelightFrame aprilTag;
+	/** From the game piece camera with the largest target */
+	public LimelightFrame gamePiece;
+	/** Where the camera behind {@link #gamePiece} sits on the robot */
+	public Transform3d gamePieceRobotToCamera;
+	/** Every camera's frame, in the order of {@link Vision#getCameras()} */
+	public final LimelightFrame[] frames;
+
+	VisionSnapshot(int cameraCount) {
+		frames = new LimelightFrame[cameraCount];
+	}
+}
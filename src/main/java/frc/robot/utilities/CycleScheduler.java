@@ -0,0 +1,173 @@
+package frc.robot.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Keeps each robot cycle inside its time budget. Critical work runs every cycle through the
+ * {@link CommandScheduler} as usual. Deferrable work is registered here and only runs once the
+ * critical work is done, and only if its expected cost still fits before the budget is spent.
+ * Work that keeps getting pushed back is run anyway after {@link DeferredTask#maxDeferCycles}
+ * cycles so nothing starves.
+ * <p> Overruns, skipped work, and the time left in each cycle are logged under "CycleScheduler".
+ * Main thread only.
+ */
+public class CycleScheduler {
+	private static CycleScheduler instance;
+
+	/** Units are seconds */
+	private static final double LOOP_PERIOD = 0.02;
+	/** Leaves room for AdvantageKit and the dashboards, which run after robotPeriodic */
+	private static final double BUDGET_FRACTION = 0.75;
+	private static final int DEFAULT_MAX_DEFER_CYCLES = 25;
+	/** Weight of the newest run in each task's cost estimate */
+	private static final double COST_SMOOTHING = 0.2;
+
+	private final List<DeferredTask> deferredTasks = new ArrayList<>();
+	private final long budgetNanos;
+	private long cycleStart;
+	private long cycle;
+	private long overrunCount;
+	private long skippedCount;
+	private double lastCycleMillis;
+	private double remainingAfterCriticalMillis;
+
+	public static enum Priority {
+		/** Runs every cycle no matter the load */
+		Critical,
+		/** Skipped or throttled when the cycle is near its budget */
+		Deferrable
+	}
+
+	public static class DeferredTask {
+		private final String name;
+		private final Runnable task;
+		private final LoopProfiler.Section section;
+		private int periodCycles = 1;
+		private int maxDeferCycles = DEFAULT_MAX_DEFER_CYCLES;
+		private long lastRunCycle = Long.MIN_VALUE / 2;
+		private double estimatedNanos;
+		private long skippedCount;
+
+		private DeferredTask(String name, Runnable task) {
+			this.name = name;
+			this.task = task;
+			section = LoopProfiler.getInstance().section(name);
+		}
+
+		/** Runs at most once every {@code periodCycles} cycles */
+		public DeferredTask setPeriodCycles(int periodCycles) {
+			this.periodCycles = Math.max(1, periodCycles);
+			return this;
+		}
+
+		/** Runs regardless of the budget once it has been pushed back this many cycles past due */
+		public DeferredTask setMaxDeferCycles(int maxDeferCycles) {
+			this.maxDeferCycles = maxDeferCycles;
+			return this;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getSkippedCount() {
+			return skippedCount;
+		}
+
+		private void run() {
+			long start = System.nanoTime();
+			section.start();
+			task.run();
+			section.stop();
+			long elapsed = System.nanoTime() - start;
+			estimatedNanos = estimatedNanos == 0
+				? elapsed
+				: estimatedNanos + (elapsed - estimatedNanos) * COST_SMOOTHING;
+		}
+	}
+
+	private CycleScheduler() {
+		budgetNanos = (long) (LOOP_PERIOD * BUDGET_FRACTION * 1e9);
+	}
+
+	public static synchronized CycleScheduler getInstance() {
+		if (instance == null) instance = new CycleScheduler();
+		return instance;
+	}
+
+	/**
+	 * Critical subsystems are left alone, the {@link CommandScheduler} already runs them.
+	 * Deferrable subsystems are taken out of it and their periodic runs as a deferred task instead;
+	 * they should not have default commands.
+	 */
+	public void register(Subsystem subsystem, Priority priority) {
+		if (priority == Priority.Critical) return;
+		CommandScheduler.getInstance().unregisterSubsystem(subsystem);
+		// Named apart from the periodic section a ProfiledSubsystem records itself
+		addDeferred(subsystem.getClass().getSimpleName() + " (deferred)", subsystem::periodic);
+	}
+
+	/** Registers work that only runs when the cycle has time for it */
+	public DeferredTask addDeferred(String name, Runnable task) {
+		DeferredTask deferredTask = new DeferredTask(name, task);
+		deferredTasks.add(deferredTask);
+		return deferredTask;
+	}
+
+	public void startCycle() {
+		cycleStart = System.nanoTime();
+	}
+
+	/** Units are seconds, negative once the budget is spent */
+	public double getRemainingSeconds() {
+		return (budgetNanos - (System.nanoTime() - cycleStart)) / 1e9;
+	}
+
+	/** Runs every due deferred task that fits in what is left of the budget, oldest first */
+	public void runDeferred() {
+		remainingAfterCriticalMillis = getRemainingSeconds() * 1000;
+		for (int i = 0; i < deferredTasks.size(); i++) {
+			DeferredTask task = deferredTasks.get(i);
+			long cyclesSinceRun = cycle - task.lastRunCycle;
+			if (cyclesSinceRun < task.periodCycles) continue;
+
+			long elapsed = System.nanoTime() - cycleStart;
+			boolean overdue = cyclesSinceRun >= task.periodCycles + task.maxDeferCycles;
+			if (!overdue && elapsed + task.estimatedNanos > budgetNanos) {
+				task.skippedCount++;
+				skippedCount++;
+				continue;
+			}
+			task.run();
+			task.lastRunCycle = cycle;
+		}
+	}
+
+	/** Records whether the cycle went over its budget and logs the scheduler's metrics */
+	public void endCycle() {
+		long elapsed = System.nanoTime() - cycleStart;
+		lastCycleMillis = elapsed / 1e6;
+		if (elapsed > budgetNanos) overrunCount++;
+		cycle++;
+
+		Logger logger = Logger.getInstance();
+		logger.recordOutput("CycleScheduler/Cycle Ms", lastCycleMillis);
+		logger.recordOutput("CycleScheduler/Remaining After Critical Ms", remainingAfterCriticalMillis);
+		logger.recordOutput("CycleScheduler/Overrun Count", overrunCount);
+		logger.recordOutput("CycleScheduler/Skipped Count", skippedCount);
+	}
+
+	public long getOverrunCount() {
+		return overrunCount;
+	}
+
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+}
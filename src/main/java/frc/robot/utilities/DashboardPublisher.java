@@ -0,0 +1,124 @@
+package frc.robot.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+
+/**
+ * Publishes dashboard values at a lower rate than the robot loop, and only when they change.
+ * Widgets are created once as plain Shuffleboard entries instead of suppliers Shuffleboard polls
+ * every cycle. Each publish evaluates every supplier, writes the values that moved more than their
+ * deadband, and flushes NetworkTables once.
+ * <p> Publishing is deferrable work on the {@link CycleScheduler}. Main thread only.
+ */
+public class DashboardPublisher {
+	private static DashboardPublisher instance;
+
+	private static final double LOOP_FREQUENCY_HZ = 50;
+	private static final double DEFAULT_PUBLISH_RATE_HZ = 10;
+
+	private final List<DoubleValue> doubleValues = new ArrayList<>();
+	private final List<StringValue> stringValues = new ArrayList<>();
+	private final CycleScheduler.DeferredTask publishTask;
+	private long publishedCount;
+	private long suppressedCount;
+
+	private static class DoubleValue {
+		final GenericEntry entry;
+		final DoubleSupplier supplier;
+		final double deadband;
+		double lastPublished = Double.NaN;
+
+		DoubleValue(GenericEntry entry, DoubleSupplier supplier, double deadband) {
+			this.entry = entry;
+			this.supplier = supplier;
+			this.deadband = deadband;
+		}
+	}
+
+	private static class StringValue {
+		final GenericEntry entry;
+		final Supplier<String> supplier;
+		String lastPublished;
+
+		StringValue(GenericEntry entry, Supplier<String> supplier) {
+			this.entry = entry;
+			this.supplier = supplier;
+		}
+	}
+
+	private DashboardPublisher() {
+		publishTask = CycleScheduler.getInstance().addDeferred("DashboardPublisher.publish()", this::publish);
+		setPublishRate(DEFAULT_PUBLISH_RATE_HZ);
+	}
+
+	public static synchronized DashboardPublisher getInstance() {
+		if (instance == null) instance = new DashboardPublisher();
+		return instance;
+	}
+
+	/** Units are hertz, rounded to a whole number of robot cycles */
+	public void setPublishRate(double rateHz) {
+		publishTask.setPeriodCycles((int) Math.round(LOOP_FREQUENCY_HZ / rateHz));
+	}
+
+	/**
+	 * Adds a number widget to a Shuffleboard tab.
+	 * @param deadband changes no larger than this are not sent
+	 */
+	public void addDouble(String tab, String name, DoubleSupplier supplier, double deadband) {
+		GenericEntry entry = Shuffleboard.getTab(tab).add(name, 0.0).getEntry();
+		doubleValues.add(new DoubleValue(entry, supplier, deadband));
+	}
+
+	/** Adds a text widget to a Shuffleboard tab, sent whenever the text changes */
+	public void addString(String tab, String name, Supplier<String> supplier) {
+		GenericEntry entry = Shuffleboard.getTab(tab).add(name, "").getEntry();
+		stringValues.add(new StringValue(entry, supplier));
+	}
+
+	public long getPublishedCount() {
+		return publishedCount;
+	}
+
+	public long getSuppressedCount() {
+		return suppressedCount;
+	}
+
+	private void publish() {
+		boolean changed = false;
+		for (int i = 0; i < doubleValues.size(); i++) {
+			DoubleValue value = doubleValues.get(i);
+			double current = value.supplier.getAsDouble();
+			if (Math.abs(current - value.lastPublished) <= value.deadband) {
+				suppressedCount++;
+				continue;
+			}
+			value.entry.setDouble(current);
+			value.lastPublished = current;
+			publishedCount++;
+			changed = true;
+		}
+		for (int i = 0; i < stringValues.size(); i++) {
+			StringValue value = stringValues.get(i);
+			String current = value.supplier.get();
+			if (Objects.equals(current, value.lastPublished)) {
+				suppressedCount++;
+				continue;
+			}
+			value.entry.setString(current);
+			value.lastPublished = current;
+			publishedCount++;
+			changed = true;
+		}
+		if (changed) {
+			NetworkTableInstance.getDefault().flush();
+		}
+	}
+}
@@ -38,19 +38,35 @@ public class ExtendedMath {
     }
 
 	public static double dot(Translation2d a, Translation2d b) {
-		return a.getX() * b.getX() + a.getY() * b.getY();
+		return dot(a.getX(), a.getY(), b.getX(), b.getY());
+	}
+
+	public static double dot(double ax, double ay, double bx, double by) {
+		return ax * bx + ay * by;
+	}
+
+	public static double norm(double x, double y) {
+		return Math.sqrt(x * x + y * y);
 	}
 
 	public static double angleBetween(Translation2d a, Translation2d b) {
-		return Math.acos(dot(a, b) / (a.getNorm() * b.getNorm()));
+		return angleBetween(a.getX(), a.getY(), b.getX(), b.getY());
+	}
+
+	public static double angleBetween(double ax, double ay, double bx, double by) {
+		return Math.acos(dot(ax, ay, bx, by) / (norm(ax, ay) * norm(bx, by)));
 	}
 
 	public static double scalarProjectionOf(Translation2d a, Translation2d b) {
-		var norm = b.getNorm();
+		return scalarProjectionOf(a.getX(), a.getY(), b.getX(), b.getY());
+	}
+
+	public static double scalarProjectionOf(double ax, double ay, double bx, double by) {
+		var norm = norm(bx, by);
 		if (norm == 0) {
 			return 0;
 		} else {
-			return dot(a, b) / norm;
+			return dot(ax, ay, bx, by) / norm;
 		}
 	}
 
@@ -62,6 +78,15 @@ public class ExtendedMath {
 		return translation.div(translation.getNorm());
 	}
 
+	/**
+	 * @param out where the result is written, may be the same vector as the input
+	 * @return {@code out} with a magnitude of 1
+	 */
+	public static Vec2 normalize(double x, double y, Vec2 out) {
+		double norm = norm(x, y);
+		return out.set(x / norm, y / norm);
+	}
+
 	public static double withHardDeadzone(double value, double deadzone) {
 		if (Math.abs(value) < deadzone) {
 			return 0;
@@ -112,13 +137,16 @@ public class ExtendedMath {
 	}
 
 	public static double distance(Translation2d start, Translation2d end) {
-		var x = end.getX() - start.getX();
-		var y = end.getY() - start.getY();
-		return Math.sqrt(x * x + y * y);
+		return distance(start.getX(), start.getY(), end.getX(), end.getY());
+	}
+
+	public static double distance(double startX, double startY, double endX, double endY) {
+		return norm(endX - startX, endY - startY);
 	}
 
 	/**
-	 * Uses bigsad Euler Angles math to get the overall angle of the robot.
+	 * Gets the overall tilt of the robot from its Euler angles. Yaw is accepted for compatibility but
+	 * does not affect how far the robot is tilted from level.
 	 * @param yaw the yaw angle in radians - Rotation about the Z axis
 	 * @param pitch the pitch angle in radians - Rotation about the X axis
 	 * @param roll the roll angle in radians - Rotation about the Y axis
@@ -129,45 +157,35 @@ public class ExtendedMath {
 		double pitch,
 		double roll
 	) {
-		// Set the ground plane normal vector
-		double[] n1 = { 0.0, 0.0, 1.0 };
-
-		// Calculate the rotation matrices
-		double[][] Rx = {
-			{ 1.0, 0.0, 0.0 },
-			{ 0.0, Math.cos(pitch), -Math.sin(pitch) },
-			{ 0.0, Math.sin(pitch), Math.cos(pitch) },
-		};
-
-		double[][] Ry = {
-			{ Math.cos(roll), 0.0, Math.sin(roll) },
-			{ 0.0, 1.0, 0.0 },
-			{ -Math.sin(roll), 0.0, Math.cos(roll) },
-		};
-
-		double[][] Rz = {
-			{ Math.cos(yaw), -Math.sin(yaw), 0.0 },
-			{ Math.sin(yaw), Math.cos(yaw), 0.0 },
-			{ 0.0, 0.0, 1.0 },
-		};
-
-		// Calculate the normal vector of the rotated plane
-		double[] n2 = new double[3];
-		for (int i = 0; i < 3; i++) {
-			n2[i] = 0.0;
-			for (int j = 0; j < 3; j++) {
-				n2[i] += Rz[i][j] * Ry[j][i] * Rx[j][i] * n1[j];
-			}
-		}
+		// The z component of the rotated ground normal is cos(pitch) * cos(roll) for either order
+		return Math.acos(clamp(-1, 1, Math.cos(pitch) * Math.cos(roll)));
+	}
 
-		// Calculate the dot product of the two normal vectors
-		double dotProduct = 0.0;
-		for (int i = 0; i < 3; i++) {
-			dotProduct += n1[i] * n2[i];
-		}
+	/**
+	 * Gets the angle between the robot's up axis and the world's up axis from an orientation
+	 * quaternion, such as the one reported by the NavX.
+	 * @return the tilt in radians, interval: [0, pi]
+	 */
+	public static double getTilt(double w, double x, double y, double z) {
+		// Up axis of the robot expressed in the world frame
+		double upX = 2 * (x * z + w * y);
+		double upY = 2 * (y * z - w * x);
+		double upZ = 1 - 2 * (x * x + y * y);
+		return Math.atan2(Math.sqrt(upX * upX + upY * upY), upZ);
+	}
 
-		// Calculate the overall tilt angle in degrees
-		return Math.acos(dotProduct);
+	/**
+	 * Gets the direction the top of the robot is leaning, relative to the robot, from an orientation
+	 * quaternion. 0 is toward the robot's +x axis and counterclockwise is positive.
+	 * @return the direction in radians, interval: [-pi, pi], 0 when level
+	 */
+	public static double getTiltDirection(double w, double x, double y, double z) {
+		// World up axis expressed in the robot frame, the robot leans away from it
+		double worldUpX = 2 * (x * z - w * y);
+		double worldUpY = 2 * (y * z + w * x);
+		// atan2 of two negative zeros is -pi, so level needs its own case
+		if (worldUpX == 0 && worldUpY == 0) return 0;
+		return Math.atan2(-worldUpY, -worldUpX);
 	}
 
 	/**
@@ -186,11 +204,46 @@ public class ExtendedMath {
 		double translationalThreshold,
 		double rotationalThreshold
 	) {
-		Pose2d differenceInPose = pose1.relativeTo(pose2);
+		return isClose(
+			pose1.getX(), pose1.getY(), pose1.getRotation().getRadians(),
+			pose2.getX(), pose2.getY(), pose2.getRotation().getRadians(),
+			translationalThreshold,
+			rotationalThreshold
+		);
+	}
+
+	public static boolean isClose(
+		Pose2 pose1,
+		Pose2 pose2,
+		double translationalThreshold,
+		double rotationalThreshold
+	) {
+		return isClose(
+			pose1.x, pose1.y, pose1.theta,
+			pose2.x, pose2.y, pose2.theta,
+			translationalThreshold,
+			rotationalThreshold
+		);
+	}
+
+	/**
+	 * Allocation free version of {@link #isClose(Pose2d, Pose2d, double, double)}. The difference
+	 * is measured in the frame of the second pose, the same as {@link Pose2d#relativeTo(Pose2d)}.
+	 */
+	public static boolean isClose(
+		double x1, double y1, double theta1,
+		double x2, double y2, double theta2,
+		double translationalThreshold,
+		double rotationalThreshold
+	) {
+		double dx = x1 - x2;
+		double dy = y1 - y2;
+		double cos = Math.cos(theta2);
+		double sin = Math.sin(theta2);
 		return (
-			Math.abs(differenceInPose.getX()) <= translationalThreshold &&
-			Math.abs(differenceInPose.getY()) <= translationalThreshold &&
-			Math.abs(differenceInPose.getRotation().getRadians()) <=
+			Math.abs(dx * cos + dy * sin) <= translationalThreshold &&
+			Math.abs(-dx * sin + dy * cos) <= translationalThreshold &&
+			Math.abs(MathUtil.angleModulus(theta1 - theta2)) <=
 			rotationalThreshold
 		);
 	}
@@ -204,6 +257,11 @@ public class ExtendedMath {
 	}
 
 	public static Rotation2d wrapRotation2d(Rotation2d rotationToWrap) {
-		return Rotation2d.fromRadians(MathUtil.angleModulus(rotationToWrap.getRadians()));
+		return Rotation2d.fromRadians(wrapAngle(rotationToWrap.getRadians()));
+	}
+
+	/** Interval: [-pi, pi] */
+	public static double wrapAngle(double radians) {
+		return MathUtil.angleModulus(radians);
 	}
 }
@@ -3,17 +3,16 @@ package frc.robot.utilities;
 import org.littletonrobotics.junction.LogTable;
 import org.littletonrobotics.junction.inputs.LoggableInputs;
 
+/** Adapts a {@link Loggable} to AdvantageKit. Each target gets its own instance. */
 public class LogInputs implements LoggableInputs {
-	private static LogInputs instance;
-	private Loggable target;
+	private final Loggable target;
 
-	public static synchronized LogInputs getInstance() {
-		if (instance == null) instance = new LogInputs();
-		return instance;
+	public LogInputs(Loggable target) {
+		this.target = target;
 	}
 
-	public void setLoggingTarget(Loggable target) {
-		this.target = target;
+	public Loggable getTarget() {
+		return target;
 	}
 
 	public void toLog(LogTable table) {
@@ -5,4 +5,9 @@ import org.littletonrobotics.junction.LogTable;
 public interface Loggable {
 	public void logData(LogTable table);
 	public String getTableName();
+
+	/** Whether anything changed since the last {@link #logData(LogTable)}, for on change logging */
+	public default boolean hasNewData() {
+		return true;
+	}
 }
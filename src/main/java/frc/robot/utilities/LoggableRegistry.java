@@ -0,0 +1,208 @@
+package frc.robot.utilities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import frc.robot.utilities.CycleScheduler.Priority;
+
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.LogTable.LogValue;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Where {@link Loggable}s sign up to be logged. Each target is logged every {@code rateDivisor}
+ * cycles, or only when it reports new data, and targets are gathered into groups that are logged
+ * together, each target under its own subtable.
+ * <p> Each target keeps one table for the whole match, and the full log key of every field is
+ * built the first time the field is seen, so logging a target allocates no tables or keys.
+ * <p> Everything a target logs is computed by robot code, so it is recorded as outputs with
+ * {@code recordOutput}. Replay then logs the recomputed values next to the robot's originals.
+ * Values that robot code reads from hardware belong in inputs with {@code processInputs} instead.
+ * <p> Critical groups are logged by {@link #run()} on the main thread after the scheduler, so each
+ * record reflects the state the subsystems finished the cycle in. Deferrable groups are handed to
+ * the {@link CycleScheduler} and logged when the cycle has time. AdvantageKit copies the cycle's
+ * table and hands it to its own receiver thread, so file and NetworkTables writes stay off the
+ * main loop.
+ */
+public class LoggableRegistry implements Runnable {
+	private static LoggableRegistry instance;
+
+	private final List<Group> criticalGroups = new ArrayList<>();
+	private final List<Group> groups = new ArrayList<>();
+	private long cycle;
+	private int entryCount;
+
+	public static enum Mode {
+		/** Logged every rate divisor cycles */
+		Periodic,
+		/** Logged at most every rate divisor cycles, and only when {@link Loggable#hasNewData()} */
+		OnChange
+	}
+
+	public static class Entry {
+		private final Loggable target;
+		private final LogTable table = new LogTable(0);
+		/** From the key in {@link #table} to the full output key */
+		private final Map<String, String> outputKeys = new HashMap<>();
+		private String prefix;
+		private int rateDivisor = 1;
+		private Mode mode = Mode.Periodic;
+		private long lastLoggedCycle;
+
+		private Entry(Loggable target, int phase) {
+			this.target = target;
+			// Staggers slow entries so they do not all land on the same cycle
+			lastLoggedCycle = -phase;
+		}
+
+		/** 1 logs every cycle, 5 logs at 10 Hz */
+		public Entry setRateDivisor(int rateDivisor) {
+			this.rateDivisor = Math.max(1, rateDivisor);
+			return this;
+		}
+
+		public Entry setMode(Mode mode) {
+			this.mode = mode;
+			return this;
+		}
+
+		private boolean isDue(long cycle) {
+			if (cycle - lastLoggedCycle < rateDivisor) return false;
+			return mode == Mode.Periodic || target.hasNewData();
+		}
+
+		private void setPrefix(String prefix) {
+			this.prefix = prefix;
+			outputKeys.clear();
+		}
+
+		/** Fields the target skips this time keep the value they were last recorded with */
+		private void log() {
+			target.logData(table);
+			Logger logger = Logger.getInstance();
+			// Keys in the whole table start with a slash
+			for (Map.Entry<String, LogValue> field : table.getAll(false).entrySet()) {
+				String key = outputKeys.get(field.getKey());
+				if (key == null) {
+					key = prefix + field.getKey();
+					outputKeys.put(field.getKey(), key);
+				}
+				recordOutput(logger, key, field.getValue());
+			}
+		}
+	}
+
+	public class Group {
+		private final String name;
+		private final List<Entry> entries = new ArrayList<>();
+
+		private Group(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Entry add(Loggable target) {
+			Entry entry = new Entry(target, entryCount++);
+			entries.add(entry);
+			// A lone target is logged straight under the group, otherwise each gets a subtable
+			for (int i = 0; i < entries.size(); i++) {
+				Entry each = entries.get(i);
+				each.setPrefix(entries.size() == 1 ? name : name + "/" + each.target.getTableName());
+			}
+			return entry;
+		}
+
+		private void log() {
+			for (int i = 0; i < entries.size(); i++) {
+				Entry entry = entries.get(i);
+				if (!entry.isDue(cycle)) continue;
+				entry.log();
+				entry.lastLoggedCycle = cycle;
+			}
+		}
+	}
+
+	private LoggableRegistry() {}
+
+	public static synchronized LoggableRegistry getInstance() {
+		if (instance == null) instance = new LoggableRegistry();
+		return instance;
+	}
+
+	/**
+	 * Creates a group logged under {@code name}. Every target in it is logged in the same pass and
+	 * shares the group's priority.
+	 */
+	public Group group(String name, Priority priority) {
+		Group group = new Group(name);
+		groups.add(group);
+		if (priority == Priority.Critical) {
+			criticalGroups.add(group);
+		} else {
+			CycleScheduler.getInstance().addDeferred(name + " Logging", group::log);
+		}
+		return group;
+	}
+
+	/** Registers {@code target} in a group of its own, logged under its table name */
+	public Entry register(Loggable target, Priority priority) {
+		return group(target.getTableName(), priority).add(target);
+	}
+
+	/** Logs every due critical group, then advances the cycle count */
+	@Override
+	public void run() {
+		for (int i = 0; i < criticalGroups.size(); i++) {
+			criticalGroups.get(i).log();
+		}
+		cycle++;
+	}
+
+	private static void recordOutput(Logger logger, String key, LogValue value) {
+		switch (value.type) {
+			case Raw:
+				logger.recordOutput(key, value.getRaw());
+				break;
+			case Boolean:
+				logger.recordOutput(key, value.getBoolean());
+				break;
+			case Integer:
+				logger.recordOutput(key, value.getInteger());
+				break;
+			case Float:
+				logger.recordOutput(key, (double) value.getFloat());
+				break;
+			case Double:
+				logger.recordOutput(key, value.getDouble());
+				break;
+			case String:
+				logger.recordOutput(key, value.getString());
+				break;
+			case BooleanArray:
+				logger.recordOutput(key, value.getBooleanArray());
+				break;
+			case IntegerArray:
+				logger.recordOutput(key, value.getIntegerArray());
+				break;
+			case FloatArray:
+				float[] floats = value.getFloatArray();
+				double[] doubles = new double[floats.length];
+				for (int i = 0; i < floats.length; i++) {
+					doubles[i] = floats[i];
+				}
+				logger.recordOutput(key, doubles);
+				break;
+			case DoubleArray:
+				logger.recordOutput(key, value.getDoubleArray());
+				break;
+			case StringArray:
+				logger.recordOutput(key, value.getStringArray());
+				break;
+		}
+	}
+}
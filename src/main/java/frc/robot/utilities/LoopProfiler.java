@@ -0,0 +1,131 @@
+package frc.robot.utilities;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Measures where the loop budget goes. Code marks the sections it wants timed, each section keeps
+ * a {@link TimingHistogram}, and once per cycle the p50, p99 and max of every section are logged
+ * under "LoopProfiler". Histograms cover a rolling window of {@link #WINDOW_CYCLES} cycles.
+ * <p> Sections must only be used from the main robot thread.
+ */
+public class LoopProfiler {
+	private static LoopProfiler instance;
+
+	private static final int WINDOW_CYCLES = 250;
+
+	private final List<Section> sections = new ArrayList<>();
+	private final GarbageCollectorMXBean[] garbageCollectors;
+	private final Section cycleSection;
+	private final Section garbageCollectionSection;
+	private long lastGarbageCollectionMillis;
+	private int cyclesInWindow;
+
+	public static class Section {
+		private final TimingHistogram histogram = new TimingHistogram();
+		private final String p50Key;
+		private final String p99Key;
+		private final String maxKey;
+		private long startTime;
+
+		private Section(String name) {
+			p50Key = "LoopProfiler/" + name + "/P50 Ms";
+			p99Key = "LoopProfiler/" + name + "/P99 Ms";
+			maxKey = "LoopProfiler/" + name + "/Max Ms";
+		}
+
+		public void start() {
+			startTime = System.nanoTime();
+		}
+
+		public void stop() {
+			histogram.recordNanos(System.nanoTime() - startTime);
+		}
+
+		public TimingHistogram getHistogram() {
+			return histogram;
+		}
+
+		private void log(Logger logger) {
+			logger.recordOutput(p50Key, histogram.getPercentileMicros(0.5) / 1000.0);
+			logger.recordOutput(p99Key, histogram.getPercentileMicros(0.99) / 1000.0);
+			logger.recordOutput(maxKey, histogram.getMaxMicros() / 1000.0);
+		}
+	}
+
+	private LoopProfiler() {
+		garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans()
+			.toArray(new GarbageCollectorMXBean[0]);
+		lastGarbageCollectionMillis = getGarbageCollectionMillis();
+		cycleSection = section("Cycle");
+		garbageCollectionSection = section("GC");
+	}
+
+	public static synchronized LoopProfiler getInstance() {
+		if (instance == null) instance = new LoopProfiler();
+		return instance;
+	}
+
+	/** Creates a timed section. Call once and keep the result, the name is used as the log key */
+	public Section section(String name) {
+		Section section = new Section(name);
+		sections.add(section);
+		return section;
+	}
+
+	/**
+	 * Wraps {@code command} so the time spent in its execute is recorded under
+	 * "<name>.execute()". Call once per command, commands should have distinct names.
+	 */
+	public Command profile(Command command) {
+		Section section = section(command.getName() + ".execute()");
+		return new WrapperCommand(command) {
+			@Override
+			public void execute() {
+				section.start();
+				m_command.execute();
+				section.stop();
+			}
+		};
+	}
+
+	public void startCycle() {
+		cycleSection.start();
+	}
+
+	/** Records the cycle and the time the JVM spent collecting garbage during it, then logs */
+	public void endCycle() {
+		cycleSection.stop();
+		long garbageCollectionMillis = getGarbageCollectionMillis();
+		garbageCollectionSection.getHistogram()
+			.recordMicros((garbageCollectionMillis - lastGarbageCollectionMillis) * 1000);
+		lastGarbageCollectionMillis = garbageCollectionMillis;
+
+		Logger logger = Logger.getInstance();
+		for (int i = 0; i < sections.size(); i++) {
+			sections.get(i).log(logger);
+		}
+
+		if (++cyclesInWindow >= WINDOW_CYCLES) {
+			cyclesInWindow = 0;
+			for (int i = 0; i < sections.size(); i++) {
+				sections.get(i).histogram.reset();
+			}
+		}
+	}
+
+	private long getGarbageCollectionMillis() {
+		long total = 0;
+		for (GarbageCollectorMXBean collector : garbageCollectors) {
+			total += Math.max(0, collector.getCollectionTime());
+		}
+		return total;
+	}
+}
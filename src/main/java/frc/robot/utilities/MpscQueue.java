@@ -0,0 +1,69 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock free queue for many producer threads and a single consumer thread.
+ * <p> Each slot carries a sequence number telling producers and the consumer whose turn it is,
+ * so neither side ever blocks. {@link #offer(Object)} fails instead of waiting when the queue is
+ * full. Only one thread may call {@link #poll()}.
+ */
+public class MpscQueue<T> {
+	private final int mask;
+	private final AtomicReferenceArray<T> buffer;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private long head;
+
+	/** @param capacity rounded up to the next power of two */
+	public MpscQueue(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		mask = size - 1;
+		buffer = new AtomicReferenceArray<>(size);
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/** @return false if the queue was full and the element was not added */
+	public boolean offer(T element) {
+		while (true) {
+			long position = tail.get();
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					buffer.lazySet(index, element);
+					sequences.set(index, position + 1);
+					return true;
+				}
+			} else if (difference < 0) {
+				return false;
+			}
+			// Another producer claimed this slot first, try the next one
+		}
+	}
+
+	/** Consumer thread only */
+	public boolean isEmpty() {
+		return sequences.get((int) (head & mask)) != head + 1;
+	}
+
+	/** Consumer thread only. @return the oldest element, or null if the queue is empty */
+	public T poll() {
+		int index = (int) (head & mask);
+		if (sequences.get(index) != head + 1) return null;
+		T element = buffer.get(index);
+		buffer.lazySet(index, null);
+		sequences.set(index, head + mask + 1);
+		head++;
+		return element;
+	}
+}
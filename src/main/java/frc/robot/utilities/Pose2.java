@@ -0,0 +1,42 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A mutable 2d pose for use as scratch space in code that runs every cycle, where allocating a
+ * new {@link Pose2d} per operation would create garbage. Units are meters and radians.
+ */
+public class Pose2 {
+	public double x;
+	public double y;
+	public double theta;
+
+	public Pose2() {}
+
+	public Pose2(double x, double y, double theta) {
+		this.x = x;
+		this.y = y;
+		this.theta = theta;
+	}
+
+	public Pose2 set(double x, double y, double theta) {
+		this.x = x;
+		this.y = y;
+		this.theta = theta;
+		return this;
+	}
+
+	public Pose2 set(Pose2d pose) {
+		return set(pose.getX(), pose.getY(), pose.getRotation().getRadians());
+	}
+
+	public Pose2d toPose2d() {
+		return new Pose2d(x, y, new Rotation2d(theta));
+	}
+
+	@Override
+	public String toString() {
+		return "Pose2(" + x + ", " + y + ", " + theta + ")";
+	}
+}
@@ -0,0 +1,22 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+
+/**
+ * A subsystem whose periodic is timed by the {@link LoopProfiler} under "<name>.periodic()".
+ * Subsystems put their per cycle work in {@link #profiledPeriodic()} instead of periodic.
+ */
+public abstract class ProfiledSubsystem extends SubsystemBase {
+	private final LoopProfiler.Section periodicSection =
+		LoopProfiler.getInstance().section(getName() + ".periodic()");
+
+	@Override
+	public final void periodic() {
+		periodicSection.start();
+		profiledPeriodic();
+		periodicSection.stop();
+	}
+
+	/** Runs once per cycle from {@link #periodic()} */
+	protected void profiledPeriodic() {}
+}
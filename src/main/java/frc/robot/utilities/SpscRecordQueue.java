@@ -0,0 +1,69 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock free queue of fixed width records of doubles for exactly one producer thread
+ * and one consumer thread. Records are copied in and out of a preallocated array, so neither
+ * side allocates or blocks.
+ * <p> {@link #offer(double[])} fails instead of waiting when the queue is full.
+ */
+public class SpscRecordQueue {
+	private final int mask;
+	private final int recordSize;
+	private final double[] buffer;
+	/** Next record to write, published by the producer */
+	private final AtomicLong tail = new AtomicLong();
+	/** Next record to read, published by the consumer */
+	private final AtomicLong head = new AtomicLong();
+	/** Producer's stale copy of head, refreshed only when the queue looks full */
+	private long cachedHead;
+	/** Consumer's stale copy of tail, refreshed only when the queue looks empty */
+	private long cachedTail;
+
+	/** @param capacity number of records, rounded up to the next power of two */
+	public SpscRecordQueue(int capacity, int recordSize) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		mask = size - 1;
+		this.recordSize = recordSize;
+		buffer = new double[size * recordSize];
+	}
+
+	public int capacity() {
+		return mask + 1;
+	}
+
+	public int recordSize() {
+		return recordSize;
+	}
+
+	/**
+	 * Producer thread only. Copies the first {@link #recordSize()} values of {@code record}.
+	 * @return false if the queue was full and the record was not added
+	 */
+	public boolean offer(double[] record) {
+		long position = tail.get();
+		if (position - cachedHead > mask) {
+			cachedHead = head.get();
+			if (position - cachedHead > mask) return false;
+		}
+		System.arraycopy(record, 0, buffer, (int) (position & mask) * recordSize, recordSize);
+		tail.lazySet(position + 1);
+		return true;
+	}
+
+	/**
+	 * Consumer thread only. Copies the oldest record into {@code out}.
+	 * @return false if the queue was empty
+	 */
+	public boolean poll(double[] out) {
+		long position = head.get();
+		if (position >= cachedTail) {
+			cachedTail = tail.get();
+			if (position >= cachedTail) return false;
+		}
+		System.arraycopy(buffer, (int) (position & mask) * recordSize, out, 0, recordSize);
+		head.lazySet(position + 1);
+		return true;
+	}
+}
@@ -0,0 +1,102 @@
+package frc.robot.utilities;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * A fixed capacity ring buffer of timestamped doubles for one writer thread and any number of
+ * reader threads. Neither side takes a lock: the writer bumps a sequence number around every
+ * write and readers retry if it changed while they were reading.
+ * <p> Values are interpolated linearly, so angles should be stored unwrapped.
+ */
+public class TimestampedBuffer {
+	private final double[] timestamps;
+	private final double[] values;
+	private volatile long sequence;
+	/** Only touched by the writer */
+	private long count;
+	private volatile long publishedCount;
+
+	public TimestampedBuffer(int capacity) {
+		timestamps = new double[capacity];
+		values = new double[capacity];
+	}
+
+	/** Writer thread only. Timestamps must be increasing, older samples are dropped */
+	public void add(double timestamp, double value) {
+		if (count > 0 && timestamp <= timestamps[index(count - 1)]) return;
+		sequence++;
+		VarHandle.storeStoreFence();
+		int index = index(count);
+		timestamps[index] = timestamp;
+		values[index] = value;
+		count++;
+		publishedCount = count;
+		sequence++;
+	}
+
+	public boolean isEmpty() {
+		return publishedCount == 0;
+	}
+
+	/** NaN when empty */
+	public double getLatestTimestamp() {
+		while (true) {
+			long start = sequence;
+			long available = publishedCount;
+			double timestamp = available == 0 ? Double.NaN : timestamps[index(available - 1)];
+			VarHandle.loadLoadFence();
+			if ((start & 1) == 0 && start == sequence) return timestamp;
+		}
+	}
+
+	public double getLatestValue(double defaultValue) {
+		while (true) {
+			long start = sequence;
+			long available = publishedCount;
+			double value = available == 0 ? defaultValue : values[index(available - 1)];
+			VarHandle.loadLoadFence();
+			if ((start & 1) == 0 && start == sequence) return value;
+		}
+	}
+
+	/**
+	 * The value at {@code timestamp}, interpolated between the surrounding samples. Times outside
+	 * the history are clamped to the oldest or newest sample.
+	 */
+	public double getAt(double timestamp, double defaultValue) {
+		while (true) {
+			long start = sequence;
+			double value = read(timestamp, defaultValue);
+			VarHandle.loadLoadFence();
+			if ((start & 1) == 0 && start == sequence) return value;
+		}
+	}
+
+	private double read(double timestamp, double defaultValue) {
+		long available = publishedCount;
+		if (available == 0) return defaultValue;
+		long oldest = Math.max(0, available - timestamps.length);
+		if (timestamp <= timestamps[index(oldest)]) return values[index(oldest)];
+		if (timestamp >= timestamps[index(available - 1)]) return values[index(available - 1)];
+
+		// Find the first sample newer than timestamp
+		long low = oldest;
+		long high = available - 1;
+		while (low < high) {
+			long mid = (low + high) >>> 1;
+			if (timestamps[index(mid)] <= timestamp) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		int after = index(low);
+		int before = index(low - 1);
+		double t = (timestamp - timestamps[before]) / (timestamps[after] - timestamps[before]);
+		return values[before] + (values[after] - values[before]) * t;
+	}
+
+	private int index(long position) {
+		return (int) (position % timestamps.length);
+	}
+}
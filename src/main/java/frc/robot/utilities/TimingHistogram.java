@@ -0,0 +1,79 @@
+package frc.robot.utilities;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size histogram of durations in the style of HdrHistogram. Values below 32 microseconds get
+ * their own bucket; above that every power of two is split into 16 buckets, so any reported value is
+ * within about 6% of the true one. Recording never allocates.
+ */
+public class TimingHistogram {
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int LINEAR_BUCKET_COUNT = 2 * SUB_BUCKET_COUNT;
+	/** Ten seconds, anything longer is clamped */
+	private static final long MAX_MICROS = 10_000_000;
+
+	private final long[] counts = new long[bucketIndex(MAX_MICROS) + 1];
+	private long totalCount;
+	private long maxMicros;
+
+	public void recordNanos(long nanos) {
+		recordMicros(nanos / 1000);
+	}
+
+	public void recordMicros(long micros) {
+		long clamped = Math.max(0, Math.min(MAX_MICROS, micros));
+		counts[bucketIndex(clamped)]++;
+		totalCount++;
+		maxMicros = Math.max(maxMicros, clamped);
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/** Units are microseconds */
+	public long getMaxMicros() {
+		return maxMicros;
+	}
+
+	/**
+	 * @param percentile between 0 and 1
+	 * @return the highest value in the bucket holding the requested percentile, units are
+	 *     microseconds, 0 if nothing has been recorded
+	 */
+	public long getPercentileMicros(double percentile) {
+		if (totalCount == 0) return 0;
+		long target = Math.max(1, (long) Math.ceil(percentile * totalCount));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return Math.min(maxMicros, bucketLowerBound(i + 1) - 1);
+			}
+		}
+		return maxMicros;
+	}
+
+	public void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		maxMicros = 0;
+	}
+
+	private static int bucketIndex(long micros) {
+		if (micros < LINEAR_BUCKET_COUNT) return (int) micros;
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+		return LINEAR_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	private static long bucketLowerBound(int index) {
+		if (index < LINEAR_BUCKET_COUNT) return index;
+		int offset = index - LINEAR_BUCKET_COUNT;
+		int exponent = offset / SUB_BUCKET_COUNT + SUB_BUCKET_BITS + 1;
+		long subBucket = offset % SUB_BUCKET_COUNT;
+		return (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+}
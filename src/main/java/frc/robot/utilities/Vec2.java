@@ -0,0 +1,42 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/**
+ * A mutable 2d vector for use as scratch space in code that runs every cycle, where allocating a
+ * new {@link Translation2d} per operation would create garbage.
+ */
+public class Vec2 {
+	public double x;
+	public double y;
+
+	public Vec2() {}
+
+	public Vec2(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public Vec2 set(double x, double y) {
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+
+	public Vec2 set(Translation2d translation) {
+		return set(translation.getX(), translation.getY());
+	}
+
+	public double norm() {
+		return Math.sqrt(x * x + y * y);
+	}
+
+	public Translation2d toTranslation2d() {
+		return new Translation2d(x, y);
+	}
+
+	@Override
+	public String toString() {
+		return "Vec2(" + x + ", " + y + ")";
+	}
+}
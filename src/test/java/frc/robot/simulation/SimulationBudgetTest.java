@@ -0,0 +1,125 @@
+package frc.robot.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj.simulation.XboxControllerSim;
+import frc.robot.Robot;
+import frc.robot.subsystems.swerve.SwerveDrive;
+import frc.robot.utilities.TimingHistogram;
+
+import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Runs the robot headless and faster than real time, and fails if a cycle costs more than its
+ * budget. Simulated time only moves when the test steps it, so every run sees the same sequence of
+ * cycles no matter how fast the machine is. Each cycle is the same sequence {@code LoggedRobot}
+ * runs, including logging. The driver's sticks sweep through slow circles in teleop so the drive
+ * code does real work.
+ * <p> The robot, the HAL, the Logger and every subsystem singleton live for the rest of the JVM,
+ * so Gradle runs each test class in a JVM of its own.
+ * <p> The main thread's CPU time and allocation are measured for each cycle, after a warm up.
+ * Settings are system properties: {@code harness.cycles}, {@code harness.warmupCycles},
+ * {@code harness.p99CpuBudgetMs}, and {@code harness.allocationBudgetBytes} (mean per cycle).
+ */
+class SimulationBudgetTest {
+	private static final double LOOP_PERIOD = 0.02;
+	private static final int DRIVER_PORT = 2;
+
+	/** Exposes the loop body {@code LoggedRobot} runs every period */
+	private static class SteppedRobot extends Robot {
+		void step() {
+			loopFunc();
+		}
+	}
+
+	@Test
+	void teleopCyclesStayWithinBudget() {
+		int cycles = Integer.getInteger("harness.cycles", 3000);
+		int warmupCycles = Integer.getInteger("harness.warmupCycles", 500);
+		double p99CpuBudgetMs = Double.parseDouble(System.getProperty("harness.p99CpuBudgetMs", "10"));
+		long allocationBudgetBytes = Long.getLong("harness.allocationBudgetBytes", 64 * 1024);
+
+		assertTrue(HAL.initialize(500, 0), "Could not initialize the HAL");
+		SimHooks.pauseTiming();
+		DriverStationSim.setDsAttached(true);
+		DriverStationSim.setAutonomous(false);
+		DriverStationSim.setEnabled(true);
+		DriverStationSim.notifyNewData();
+		XboxControllerSim driver = new XboxControllerSim(DRIVER_PORT);
+
+		SteppedRobot robot = new SteppedRobot();
+		robot.robotInit();
+		robot.simulationInit();
+		Logger logger = Logger.getInstance();
+
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		threads.setThreadAllocatedMemoryEnabled(true);
+		threads.setThreadCpuTimeEnabled(true);
+		long threadId = Thread.currentThread().getId();
+		TimingHistogram cpuTimes = new TimingHistogram();
+		long totalAllocatedBytes = 0;
+		long maxAllocatedBytes = 0;
+		double maxTargetSpeed = 0;
+
+		try {
+			for (int cycle = 0; cycle < cycles; cycle++) {
+				double time = cycle * LOOP_PERIOD;
+				driver.setLeftY(0.5 * Math.sin(time));
+				driver.setLeftX(0.5 * Math.cos(time));
+				driver.setRightX(0.25 * Math.sin(time * 0.5));
+				DriverStationSim.notifyNewData();
+				SimHooks.stepTiming(LOOP_PERIOD);
+
+				long cpuStart = threads.getCurrentThreadCpuTime();
+				long allocatedStart = threads.getThreadAllocatedBytes(threadId);
+				long loopCycleStart = logger.getRealTimestamp();
+				logger.periodicBeforeUser();
+				long userCodeStart = logger.getRealTimestamp();
+				robot.step();
+				long userCodeEnd = logger.getRealTimestamp();
+				logger.periodicAfterUser(userCodeEnd - userCodeStart, userCodeStart - loopCycleStart);
+				long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+				long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedStart;
+
+				if (cycle >= warmupCycles) {
+					cpuTimes.recordNanos(cpu);
+					totalAllocatedBytes += allocated;
+					maxAllocatedBytes = Math.max(maxAllocatedBytes, allocated);
+					for (double speed : SwerveDrive.getInstance().getTargetSpeeds()) {
+						maxTargetSpeed = Math.max(maxTargetSpeed, Math.abs(speed));
+					}
+				}
+			}
+		} finally {
+			logger.end();
+		}
+
+		int measuredCycles = Math.max(1, cycles - warmupCycles);
+		double p50Ms = cpuTimes.getPercentileMicros(0.5) / 1000.0;
+		double p99Ms = cpuTimes.getPercentileMicros(0.99) / 1000.0;
+		double maxMs = cpuTimes.getMaxMicros() / 1000.0;
+		long meanAllocatedBytes = totalAllocatedBytes / measuredCycles;
+		String summary = String.format(
+			"%d cycles measured, CPU ms p50 %.3f p99 %.3f max %.3f, allocated bytes mean %d max %d",
+			measuredCycles, p50Ms, p99Ms, maxMs, meanAllocatedBytes, maxAllocatedBytes
+		);
+
+		assertTrue(maxTargetSpeed > 0, "The modules were never driven, so teleop never ran");
+		assertTrue(
+			p99Ms <= p99CpuBudgetMs,
+			String.format("p99 CPU time is over the %.3f ms budget: %s", p99CpuBudgetMs, summary)
+		);
+		assertTrue(
+			meanAllocatedBytes <= allocationBudgetBytes,
+			String.format("Mean allocation is over the %d byte budget: %s", allocationBudgetBytes, summary)
+		);
+	}
+}
@@ -0,0 +1,115 @@
+package frc.robot.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Quaternion;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the tilt helpers against the rotation matrix WPILib builds for the same rotation. Row 3 of
+ * the matrix is the world's up axis in the robot frame and column 3 is the robot's up axis in the
+ * world frame.
+ */
+class ExtendedMathTest {
+	private static final double EPSILON = 1e-9;
+	private static final double[] ANGLES = {
+		-Math.PI / 2, -1.2, -0.5, -0.1, 0, 0.1, 0.5, 1.2, Math.PI / 2
+	};
+	private static final double[] YAWS = { -3, -Math.PI / 2, 0, 0.7, Math.PI / 2, Math.PI };
+
+	@Test
+	void matchesRotationMatrix() {
+		for (double roll : ANGLES) {
+			for (double pitch : ANGLES) {
+				for (double yaw : YAWS) {
+					Rotation3d rotation = new Rotation3d(roll, pitch, yaw);
+					double[][] matrix = toMatrix(rotation);
+					double expectedTilt = Math.acos(MathUtil.clamp(matrix[2][2], -1, 1));
+					String message = String.format("roll %.3f pitch %.3f yaw %.3f", roll, pitch, yaw);
+
+					assertEquals(expectedTilt, getTilt(rotation), EPSILON, message);
+					assertEquals(expectedTilt, ExtendedMath.getOverallAngle(yaw, pitch, roll), EPSILON, message);
+					if (roll == 0 && pitch == 0) continue;
+					double expectedDirection = Math.atan2(-matrix[2][1], -matrix[2][0]);
+					assertAngleEquals(expectedDirection, getTiltDirection(rotation), message);
+				}
+			}
+		}
+	}
+
+	@Test
+	void levelHasNoTilt() {
+		for (double yaw : YAWS) {
+			Rotation3d rotation = new Rotation3d(0, 0, yaw);
+			assertEquals(0, getTilt(rotation), EPSILON);
+			assertEquals(0, getTiltDirection(rotation), EPSILON);
+			assertEquals(0, ExtendedMath.getOverallAngle(yaw, 0, 0), EPSILON);
+		}
+	}
+
+	@Test
+	void pitchedNinetyDegrees() {
+		for (double yaw : YAWS) {
+			// Positive pitch is nose down, so the top leans forward
+			Rotation3d noseDown = new Rotation3d(0, Math.PI / 2, yaw);
+			assertEquals(Math.PI / 2, getTilt(noseDown), EPSILON);
+			assertAngleEquals(0, getTiltDirection(noseDown), "nose down");
+			assertEquals(Math.PI / 2, ExtendedMath.getOverallAngle(yaw, Math.PI / 2, 0), EPSILON);
+
+			Rotation3d noseUp = new Rotation3d(0, -Math.PI / 2, yaw);
+			assertEquals(Math.PI / 2, getTilt(noseUp), EPSILON);
+			assertAngleEquals(Math.PI, getTiltDirection(noseUp), "nose up");
+			assertEquals(Math.PI / 2, ExtendedMath.getOverallAngle(yaw, -Math.PI / 2, 0), EPSILON);
+		}
+	}
+
+	@Test
+	void rolledNinetyDegrees() {
+		for (double yaw : YAWS) {
+			// Positive roll lifts the left side, so the top leans right
+			Rotation3d rightDown = new Rotation3d(Math.PI / 2, 0, yaw);
+			assertEquals(Math.PI / 2, getTilt(rightDown), EPSILON);
+			assertAngleEquals(-Math.PI / 2, getTiltDirection(rightDown), "right down");
+			assertEquals(Math.PI / 2, ExtendedMath.getOverallAngle(yaw, 0, Math.PI / 2), EPSILON);
+
+			Rotation3d leftDown = new Rotation3d(-Math.PI / 2, 0, yaw);
+			assertEquals(Math.PI / 2, getTilt(leftDown), EPSILON);
+			assertAngleEquals(Math.PI / 2, getTiltDirection(leftDown), "left down");
+			assertEquals(Math.PI / 2, ExtendedMath.getOverallAngle(yaw, 0, -Math.PI / 2), EPSILON);
+		}
+	}
+
+	private static double getTilt(Rotation3d rotation) {
+		Quaternion q = rotation.getQuaternion();
+		return ExtendedMath.getTilt(q.getW(), q.getX(), q.getY(), q.getZ());
+	}
+
+	private static double getTiltDirection(Rotation3d rotation) {
+		Quaternion q = rotation.getQuaternion();
+		return ExtendedMath.getTiltDirection(q.getW(), q.getX(), q.getY(), q.getZ());
+	}
+
+	/** Rows are world axes and columns are where the robot's axes point */
+	private static double[][] toMatrix(Rotation3d rotation) {
+		Translation3d[] columns = {
+			new Translation3d(1, 0, 0).rotateBy(rotation),
+			new Translation3d(0, 1, 0).rotateBy(rotation),
+			new Translation3d(0, 0, 1).rotateBy(rotation)
+		};
+		double[][] matrix = new double[3][3];
+		for (int column = 0; column < 3; column++) {
+			matrix[0][column] = columns[column].getX();
+			matrix[1][column] = columns[column].getY();
+			matrix[2][column] = columns[column].getZ();
+		}
+		return matrix;
+	}
+
+	private static void assertAngleEquals(double expected, double actual, String message) {
+		assertEquals(0, MathUtil.angleModulus(actual - expected), EPSILON, message);
+	}
+}